@@ -0,0 +1,240 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves many graphs in one JVM. The graphs are given by a directory (all
+ * .graph and .fvsb files) or a manifest (one path per line, relative to the
+ * manifest, blank lines and lines starting with # are ignored). Every graph is
+ * loaded and solved by one task of a fixed thread pool with the heuristic, the
+ * greedy, the approximation, the local search and the exact algorithm (1
+ * processor, local search boundary), like a single graph in
+ * {@link FeedbackVertexSet#main(String[])}.
+ * One line per graph and algorithm is written in the order of the input, as
+ * JSON Lines or CSV.
+ */
+public class BatchSolver {
+
+	/**
+	 * The formats of the result lines
+	 */
+	public enum Format {
+		JSONL, CSV
+	}
+
+	private static final String USAGE = "usage: \"java FeedbackVertexSet --batch <Directory|Manifest> "
+			+ "[--threads <n>] [--format jsonl|csv] [--out <File>]\"";
+
+	/**
+	 * Runs the batch mode
+	 * 
+	 * @param args the directory or manifest followed by the options
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1 || args.length % 2 != 1) {
+			System.err.println("Invalid arguments, " + USAGE);
+			return;
+		}
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		Format format = Format.JSONL;
+		File out = null;
+
+		for (int i = 1; i < args.length; i += 2) {
+			String value = args[i + 1];
+			try {
+				switch (args[i]) {
+				case "--threads":
+					threads = Integer.parseInt(value);
+					if (threads < 1)
+						throw new IllegalArgumentException();
+					break;
+				case "--format":
+					format = Format.valueOf(value.toUpperCase(Locale.ROOT));
+					break;
+				case "--out":
+					out = new File(value);
+					break;
+				default:
+					throw new IllegalArgumentException();
+				}
+			} catch (IllegalArgumentException e) {
+				System.err.println("Invalid option " + args[i] + " " + value + ", " + USAGE);
+				return;
+			}
+		}
+
+		try {
+			List<File> files = instances(new File(args[0]));
+			if (out == null) {
+				// stdout is flushed, not closed
+				Writer writer = new BufferedWriter(new OutputStreamWriter(System.out));
+				solve(files, threads, format, writer);
+				writer.flush();
+			} else {
+				try (Writer writer = new BufferedWriter(new FileWriter(out))) {
+					solve(files, threads, format, writer);
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * List the graph files of a directory or a manifest
+	 * 
+	 * @param source the directory or manifest
+	 * @return the graph files
+	 * @throws IOException if the manifest can not be read
+	 */
+	public static List<File> instances(File source) throws IOException {
+		List<File> files = new ArrayList<>();
+
+		if (source.isDirectory()) {
+			File[] listed = source.listFiles(
+					(dir, name) -> name.endsWith(".graph") || name.endsWith(BinaryGraphFormat.EXTENSION));
+			if (listed == null)
+				throw new IOException("Directory can not be read: " + source);
+			Arrays.sort(listed);
+			files.addAll(Arrays.asList(listed));
+			return files;
+		}
+
+		try (BufferedReader reader = new BufferedReader(new FileReader(source))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				File file = new File(line);
+				if (!file.isAbsolute())
+					file = new File(source.getAbsoluteFile().getParentFile(), line);
+				files.add(file);
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Solve graphs on a pool of threads and write the results in input order
+	 * 
+	 * @param files   the graph files
+	 * @param threads the number of threads
+	 * @param format  the output format
+	 * @param writer  the output
+	 * @throws IOException if the output can not be written
+	 */
+	public static void solve(List<File> files, int threads, Format format, Writer writer) throws IOException {
+		if (format == Format.CSV)
+			writer.write("file,algorithm,weight,time_ms,set\n");
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<String>> results = new ArrayList<>(files.size());
+			for (File file : files) {
+				results.add(pool.submit(() -> solve(file, format)));
+			}
+
+			for (int i = 0; i < files.size(); i++) {
+				try {
+					writer.write(results.get(i).get());
+				} catch (ExecutionException e) {
+					System.err.println("Failed to solve " + files.get(i) + ": " + e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Solve one graph with all algorithms
+	 * 
+	 * @return the result lines
+	 */
+	private static String solve(File file, Format format) throws IOException {
+		Graph g = GraphLoader.load(file);
+		StringBuilder lines = new StringBuilder();
+
+		long t1 = System.nanoTime();
+		FvsSolution heuristic = FeedbackVertexSet.heuristicSolution(g);
+		long t2 = System.nanoTime();
+		line(lines, format, file, "heuristic", heuristic, t2 - t1);
+
+		t1 = System.nanoTime();
+		FvsSolution greedy = FeedbackVertexSet.greedySolution(g);
+		t2 = System.nanoTime();
+		line(lines, format, file, "greedy", greedy, t2 - t1);
+
+		t1 = System.nanoTime();
+		FvsSolution approximation = FeedbackVertexSet.approximationSolution(g);
+		t2 = System.nanoTime();
+		line(lines, format, file, "approximation", approximation, t2 - t1);
+
+		t1 = System.nanoTime();
+		FvsSolution local = FeedbackVertexSet.localSearchSolution(g, approximation,
+				FeedbackVertexSet.LOCAL_SEARCH_MILLIS);
+		t2 = System.nanoTime();
+		line(lines, format, file, "local", local, t2 - t1);
+
+		t1 = System.nanoTime();
+		FvsSolution exact = FeedbackVertexSet.exactSolution(g, (float) local.weight(), 1,
+				FeedbackVertexSet.Strategy.BRANCHING);
+		t2 = System.nanoTime();
+		// nothing is lighter than the local search solution
+		if (exact == null)
+			exact = local;
+		line(lines, format, file, "exact", exact, t2 - t1);
+
+		return lines.toString();
+	}
+
+	/**
+	 * Append a result line, a missing solution (no solution within the bound) has
+	 * no weight and no set
+	 */
+	private static void line(StringBuilder lines, Format format, File file, String algorithm, FvsSolution solution,
+			long nanos) {
+		String time = String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+		String path = file.getPath();
+		if (format == Format.JSONL) {
+			lines.append("{\"file\":\"").append(path.replace("\\", "\\\\").replace("\"", "\\\""))
+					.append("\",\"algorithm\":\"").append(algorithm).append("\",\"weight\":")
+					.append(solution == null ? "null" : String.valueOf((float) solution.weight()))
+					.append(",\"time_ms\":").append(time).append(",\"set\":")
+					.append(solution == null ? "null" : solution.toString()).append("}\n");
+		} else {
+			if (path.contains(",") || path.contains("\""))
+				path = "\"" + path.replace("\"", "\"\"") + "\"";
+			lines.append(path).append(',').append(algorithm).append(',')
+					.append(solution == null ? "" : String.valueOf((float) solution.weight())).append(',')
+					.append(time).append(',');
+			int[] set = solution == null ? new int[0] : solution.toArray();
+			Arrays.sort(set);
+			for (int i = 0; i < set.length; i++) {
+				if (i > 0)
+					lines.append(' ');
+				lines.append(set[i]);
+			}
+			lines.append('\n');
+		}
+	}
+
+}
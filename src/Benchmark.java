@@ -0,0 +1,186 @@
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A benchmark harness for the algorithms and the graph primitives. Every
+ * benchmark runs on every graph family: warm-up iterations let the JIT compile
+ * the code, then the measured iterations run the operation repeatedly for a
+ * fixed time. The throughput (mean and standard deviation over the iterations),
+ * the time per operation and the bytes allocated per operation by the
+ * benchmark thread are reported. The exact algorithm with more than one
+ * processor allocates on the pool threads, which is not included.
+ * 
+ * Run with "java Benchmark [--filter &lt;regex&gt;] [--warmup &lt;n&gt;]
+ * [--iterations &lt;n&gt;] [--time &lt;ms&gt;] [--graphs &lt;directory&gt;]",
+ * the filter is matched against "benchmark/family".
+ * 
+ * The large sparse family only runs the benchmarks that scale to it. It also
+ * guards the memory of the approximation, which has to run with a small heap
+ * ("java -Xmx256m Benchmark --filter approximation/sparse.*").
+ */
+public class Benchmark {
+
+	/**
+	 * An operation that is benchmarked on a graph
+	 */
+	private interface Operation {
+		Object run(Graph g);
+	}
+
+	// results are written here so the JIT can not remove the operations
+	private static volatile int sink;
+
+	private static final int SEED = 42;
+
+	/**
+	 * Runs the benchmarks
+	 * 
+	 * @param args the options
+	 */
+	public static void main(String[] args) {
+		String filter = ".*";
+		int warmup = 3;
+		int iterations = 5;
+		long time = 500;
+		File graphs = new File("graphs");
+
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+			case "--filter":
+				filter = args[i + 1];
+				break;
+			case "--warmup":
+				warmup = Integer.parseInt(args[i + 1]);
+				break;
+			case "--iterations":
+				iterations = Integer.parseInt(args[i + 1]);
+				break;
+			case "--time":
+				time = Long.parseLong(args[i + 1]);
+				break;
+			case "--graphs":
+				graphs = new File(args[i + 1]);
+				break;
+			default:
+				System.err.println("Unknown option " + args[i]);
+				return;
+			}
+		}
+
+		// graph families
+		List<String> familyNames = new ArrayList<>();
+		List<Graph> families = new ArrayList<>();
+		GraphGenerator generator = new GraphGenerator(SEED, GraphGenerator.Weights.INTEGER, 10);
+		familyNames.add("random(n=30,p=0.15)");
+		families.add(generator.erdosRenyi(30, 0.15));
+		familyNames.add("random(n=60,p=0.05)");
+		families.add(generator.erdosRenyi(60, 0.05));
+		familyNames.add("grid(6x6)");
+		families.add(generator.grid(6, 6, false));
+		familyNames.add("planar(5x5)");
+		families.add(generator.triangulatedGrid(5, 5));
+		for (int i = 1; i <= 8; i++) {
+			File file = new File(graphs, "graph" + i + ".graph");
+			try {
+				families.add(GraphLoader.load(file));
+				familyNames.add("graph" + i);
+			} catch (IOException e) {
+				System.err.println("Skipping " + file + ": " + e.getMessage());
+			}
+		}
+		int small = families.size();
+		familyNames.add("sparse(n=20000,d=4)");
+		families.add(generator.erdosRenyi(20000, 4.0 / 20000));
+
+		// benchmarks, the ones up to scaling also run on the large families
+		List<String> names = new ArrayList<>();
+		List<Operation> operations = new ArrayList<>();
+		names.add("greedy");
+		operations.add(g -> FeedbackVertexSet.greedySolution(g));
+		names.add("approximation");
+		operations.add(g -> FeedbackVertexSet.approximationSolution(g));
+		names.add("cleanUp");
+		operations.add(g -> {
+			int mark = g.mark();
+			int removed = g.cleanUp();
+			g.undoTo(mark);
+			return removed;
+		});
+		names.add("copy");
+		operations.add(g -> g.copy());
+		int scaling = operations.size();
+		names.add("heuristic");
+		operations.add(g -> FeedbackVertexSet.heuristicSolution(g));
+		int processors = Runtime.getRuntime().availableProcessors();
+		for (int p : new int[] { 1, 2, 4, processors }) {
+			if (names.contains("exact(" + p + ")"))
+				continue;
+			names.add("exact(" + p + ")");
+			operations.add(g -> FeedbackVertexSet.exactSolution(g, -1.0f, p, FeedbackVertexSet.Strategy.BRANCHING));
+		}
+		names.add("findCycles");
+		operations.add(g -> g.findCycles());
+
+		System.out.println(String.format(Locale.ROOT, "%-36s %14s %12s %14s %14s", "benchmark", "ops/s", "error",
+				"us/op", "B/op"));
+		for (int b = 0; b < operations.size(); b++) {
+			for (int f = 0; f < (b < scaling ? families.size() : small); f++) {
+				String name = names.get(b) + "/" + familyNames.get(f);
+				if (!name.matches(filter))
+					continue;
+				measure(name, operations.get(b), families.get(f), warmup, iterations, time);
+			}
+		}
+	}
+
+	/**
+	 * Run and report one benchmark
+	 */
+	private static void measure(String name, Operation operation, Graph g, int warmup, int iterations, long time) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+
+		double[] throughput = new double[iterations];
+		long totalOps = 0;
+		long totalNanos = 0;
+		long totalBytes = 0;
+
+		for (int i = -warmup; i < iterations; i++) {
+			long ops = 0;
+			long bytes = threads.getThreadAllocatedBytes(thread);
+			long start = System.nanoTime();
+			long end = start + time * 1000000L;
+			long now;
+			do {
+				sink += System.identityHashCode(operation.run(g));
+				ops++;
+				now = System.nanoTime();
+			} while (now < end);
+			bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+			if (i >= 0) {
+				throughput[i] = ops * 1e9 / (now - start);
+				totalOps += ops;
+				totalNanos += now - start;
+				totalBytes += bytes;
+			}
+		}
+
+		double mean = Arrays.stream(throughput).average().orElse(0.0);
+		double variance = 0.0;
+		for (double value : throughput) {
+			variance += (value - mean) * (value - mean);
+		}
+		double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0.0;
+
+		System.out.println(String.format(Locale.ROOT, "%-36s %14.1f %12.1f %14.3f %14.0f", name, mean, error,
+				totalNanos / 1e3 / totalOps, (double) totalBytes / totalOps));
+	}
+
+}
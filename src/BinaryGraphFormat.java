@@ -0,0 +1,171 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The binary graph format (.fvsb). All values are little-endian:
+ * <ul>
+ * <li>header: magic "FVSB", version, n, m, CRC32 of the data (5 x 4 bytes)</li>
+ * <li>data: n weights (float), n + 1 offsets, 2m neighbors and 2m edge ids
+ * (int)</li>
+ * </ul>
+ * The arrays are the adjacency arrays of {@link Graph}, so loading only maps
+ * the file and copies them in bulk. The converter is run with
+ * "java BinaryGraphFormat &lt;GraphFilePath&gt; &lt;BinaryFilePath&gt;".
+ */
+public class BinaryGraphFormat {
+
+	public static final String EXTENSION = ".fvsb";
+
+	private static final int MAGIC = 'F' | 'V' << 8 | 'S' << 16 | 'B' << 24;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 20;
+
+	// arrays are mapped and written in windows of this size (a multiple of 4)
+	private static final int WINDOW = 1 << 26;
+
+	/**
+	 * Converts a text graph file into a binary graph file
+	 * 
+	 * @param args the text file path and the binary file path
+	 */
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.err.println(
+					"Exactly two arguments are expected, usage: \"java BinaryGraphFormat <GraphFilePath> <BinaryFilePath>\"");
+			return;
+		}
+
+		try {
+			Graph g = GraphLoader.load(new File(args[0]));
+			write(g, new File(args[1]));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Write the original state of a graph to a binary graph file
+	 * 
+	 * @param g    the graph
+	 * @param file the file
+	 * @throws IOException if the file can not be written
+	 */
+	public static void write(Graph g, File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WINDOW).order(ByteOrder.LITTLE_ENDIAN);
+			CRC32 crc = new CRC32();
+
+			// data
+			channel.position(HEADER_SIZE);
+			for (float weight : g.originalWeights) {
+				if (!buffer.hasRemaining())
+					flush(channel, buffer, crc);
+				buffer.putFloat(weight);
+			}
+			for (int[] array : new int[][] { g.offsets, g.neighbors, g.edgeIds }) {
+				for (int value : array) {
+					if (!buffer.hasRemaining())
+						flush(channel, buffer, crc);
+					buffer.putInt(value);
+				}
+			}
+			flush(channel, buffer, crc);
+
+			// header
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(g.verticesCount).putInt(g.edgesCount)
+					.putInt((int) crc.getValue());
+			buffer.flip();
+			channel.position(0);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+		buffer.flip();
+		crc.update(buffer.duplicate());
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Load a binary graph file
+	 * 
+	 * @param file the file
+	 * @return the graph
+	 * @throws IOException if the file can not be read, has an unknown version or
+	 *                     is corrupted
+	 */
+	public static Graph read(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_SIZE)
+				throw new IOException("Not a binary graph file: " + file);
+
+			// header
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt() != MAGIC)
+				throw new IOException("Not a binary graph file: " + file);
+			int version = header.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported binary graph version " + version + ": " + file);
+			int n = header.getInt();
+			int m = header.getInt();
+			int checksum = header.getInt();
+			if (n < 0 || m < 0 || m > Integer.MAX_VALUE / 2
+					|| size != HEADER_SIZE + 4L * n + 4L * (n + 1) + 16L * m)
+				throw new IOException("Truncated binary graph file: " + file);
+
+			// data
+			CRC32 crc = new CRC32();
+			float[] weights = new float[n];
+			int[] offsets = new int[n + 1];
+			int[] neighbors = new int[2 * m];
+			int[] edgeIds = new int[2 * m];
+			long position = HEADER_SIZE;
+			int done = 0;
+			while (done < n) {
+				int count = Math.min(n - done, WINDOW / 4);
+				map(channel, position, count, crc).asFloatBuffer().get(weights, done, count);
+				position += 4L * count;
+				done += count;
+			}
+			for (int[] array : new int[][] { offsets, neighbors, edgeIds }) {
+				done = 0;
+				while (done < array.length) {
+					int count = Math.min(array.length - done, WINDOW / 4);
+					map(channel, position, count, crc).asIntBuffer().get(array, done, count);
+					position += 4L * count;
+					done += count;
+				}
+			}
+			if ((int) crc.getValue() != checksum)
+				throw new IOException("Checksum mismatch in binary graph file: " + file);
+			if (offsets[n] != 2 * m)
+				throw new IOException("Inconsistent binary graph file: " + file);
+
+			return new Graph(offsets, neighbors, edgeIds, m, weights);
+		}
+	}
+
+	/**
+	 * Map a window of values and add it to the checksum
+	 */
+	private static ByteBuffer map(FileChannel channel, long position, int count, CRC32 crc) throws IOException {
+		MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * count);
+		crc.update(window.duplicate());
+		return window.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+}
@@ -0,0 +1,299 @@
+/**
+ * An exact engine for graphs with at most 64 vertices. The neighbours of a
+ * vertex and the enabled vertices are single longs, so the degree kernel, the
+ * acyclicity test, the lower bound and the cycle search are bit operations and
+ * a search node allocates nothing but the cycle to branch on.
+ * 
+ * A node removes the vertices with a degree of 1 or less, so the graph is
+ * acyclic exactly when nothing is left. Otherwise it branches on the vertices
+ * of a short cycle: the i-th branch deletes the i-th vertex and forbids the
+ * deletion of the vertices before it, so every solution is found once.
+ */
+class BitsetSolver {
+
+	// the largest graph handled
+	public static final int MAX_VERTICES = 64;
+
+	private final int n;
+	private final float[] weights;
+
+	// neighbours of every vertex and neighbours joined by parallel edges
+	private final long[] adjacent;
+	private final long[] doubled;
+
+	private final SearchContext context;
+	private final SolverMetrics metrics;
+
+	// scratch of the lower bound and the cycle search
+	private final float[] ratios;
+	private final int[] capacities;
+	private final int[] parent;
+
+	private BitsetSolver(Graph g, SearchContext context) {
+		this.n = g.verticesCount;
+		this.weights = g.weights.clone();
+		this.adjacent = new long[n];
+		this.doubled = new long[n];
+		for (int v = 0; v < n; v++) {
+			for (int i = g.offsets[v]; i < g.offsets[v + 1]; i++) {
+				long bit = 1L << g.neighbors[i];
+				if ((adjacent[v] & bit) != 0)
+					doubled[v] |= bit;
+				adjacent[v] |= bit;
+			}
+		}
+		this.context = context;
+		this.metrics = context.metrics;
+		this.ratios = new float[n];
+		this.capacities = new int[n];
+		this.parent = new int[n];
+	}
+
+	/**
+	 * Check if a graph can be solved by this engine: all vertices are enabled,
+	 * there are at most 64 of them and no self loops
+	 * 
+	 * @param g the graph
+	 * @return true if the graph fits, false else
+	 */
+	public static boolean fits(Graph g) {
+		if (g.verticesCount > MAX_VERTICES || g.enabledVerticesCount != g.verticesCount)
+			return false;
+		for (int v = 0; v < g.verticesCount; v++) {
+			for (int i = g.offsets[v]; i < g.offsets[v + 1]; i++) {
+				if (g.neighbors[i] == v)
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Solve the FVS of a graph that fits, the solutions are offered to the context
+	 * 
+	 * @param g       the graph
+	 * @param context the context holding the bound and the best solution
+	 */
+	public static void solve(Graph g, SearchContext context) {
+		long all = g.verticesCount == 64 ? -1L : (1L << g.verticesCount) - 1;
+		new BitsetSolver(g, context).search(all, 0L, 0L, 0.0f, 0);
+	}
+
+	/**
+	 * Branch on a node of the search
+	 * 
+	 * @param enabled   the remaining vertices
+	 * @param forbidden the remaining vertices that must not be deleted
+	 * @param deleted   the vertices deleted so far
+	 * @param current   the weight of the deleted vertices
+	 * @param depth     the number of deletions
+	 */
+	private void search(long enabled, long forbidden, long deleted, float current, int depth) {
+		// see if bound or best solution is exceeded
+		if (context.prunes(current)) {
+			if (metrics != null)
+				metrics.prune(SolverMetrics.Prune.BOUND);
+			return;
+		}
+		// see if a limit is reached or the search was cancelled
+		if (context.stops(current))
+			return;
+		if (metrics != null)
+			metrics.node(depth);
+
+		// a cleaned graph is acyclic if it is empty
+		enabled = cleanUp(enabled);
+		if (enabled == 0) {
+			context.offer(solution(deleted, depth), current);
+			return;
+		}
+		forbidden &= enabled;
+
+		// see if the lower bound of the rest exceeds the bound
+		float lowerBound = lowerBound(enabled, forbidden);
+		if (context.prunes(current + lowerBound)) {
+			if (metrics != null)
+				metrics.prune(SolverMetrics.Prune.LOWER_BOUND);
+			return;
+		}
+
+		// a cycle of forbidden vertices can not be broken
+		int[] cycle = cycle(enabled);
+		int count = 0;
+		for (int v : cycle) {
+			if ((forbidden & (1L << v)) == 0)
+				cycle[count++] = v;
+		}
+		if (count == 0)
+			return;
+		if (metrics != null)
+			metrics.branch(SolverMetrics.Branch.SHORTEST_CYCLE);
+
+		// the vertices most worth deleting first
+		for (int i = 1; i < count; i++) {
+			int v = cycle[i];
+			float key = weights[v] / (degree(v, enabled) - 1);
+			int j = i - 1;
+			while (j >= 0 && weights[cycle[j]] / (degree(cycle[j], enabled) - 1) > key) {
+				cycle[j + 1] = cycle[j];
+				j--;
+			}
+			cycle[j + 1] = v;
+		}
+
+		for (int i = 0; i < count; i++) {
+			long bit = 1L << cycle[i];
+			search(enabled & ~bit, forbidden, deleted | bit, current + weights[cycle[i]], depth + 1);
+			forbidden |= bit;
+		}
+	}
+
+	private int degree(int v, long enabled) {
+		return Long.bitCount(adjacent[v] & enabled) + Long.bitCount(doubled[v] & enabled);
+	}
+
+	/**
+	 * Remove the vertices with a degree of 1 or less until there are none
+	 */
+	private long cleanUp(long enabled) {
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (long rest = enabled; rest != 0; rest &= rest - 1) {
+				int v = Long.numberOfTrailingZeros(rest);
+				long neighbours = adjacent[v] & enabled;
+				if ((neighbours & (neighbours - 1)) == 0 && (doubled[v] & enabled) == 0) {
+					enabled &= ~(1L << v);
+					changed = true;
+				}
+			}
+		}
+		return enabled;
+	}
+
+	/**
+	 * The degree based lower bound of {@link LowerBound#degree(Graph)} of a
+	 * cleaned graph, forbidden vertices can not be taken
+	 */
+	private float lowerBound(long enabled, long forbidden) {
+		// the number of edges a FVS has to cover: m - n + c
+		int edges = 0;
+		int count = 0;
+		for (long rest = enabled; rest != 0; rest &= rest - 1) {
+			int v = Long.numberOfTrailingZeros(rest);
+			int degree = degree(v, enabled);
+			edges += degree;
+			if ((forbidden & (1L << v)) == 0) {
+				ratios[count] = weights[v] / (degree - 1);
+				capacities[count++] = degree - 1;
+			}
+		}
+		int demand = edges / 2 - Long.bitCount(enabled) + components(enabled);
+		return LowerBound.cover(ratios, capacities, count, demand);
+	}
+
+	private int components(long enabled) {
+		int components = 0;
+		while (enabled != 0) {
+			long component = enabled & -enabled;
+			long frontier = component;
+			while (frontier != 0) {
+				long next = 0;
+				for (long rest = frontier; rest != 0; rest &= rest - 1) {
+					next |= adjacent[Long.numberOfTrailingZeros(rest)];
+				}
+				frontier = next & enabled & ~component;
+				component |= frontier;
+			}
+			enabled &= ~component;
+			components++;
+		}
+		return components;
+	}
+
+	/**
+	 * Find a short cycle of a cleaned graph: a double edge or the first cycle
+	 * closed by a BFS from a vertex of maximum degree
+	 */
+	private int[] cycle(long enabled) {
+		int root = -1;
+		int maxDegree = -1;
+		for (long rest = enabled; rest != 0; rest &= rest - 1) {
+			int v = Long.numberOfTrailingZeros(rest);
+			long twins = doubled[v] & enabled;
+			if (twins != 0)
+				return new int[] { v, Long.numberOfTrailingZeros(twins) };
+			int degree = degree(v, enabled);
+			if (degree > maxDegree) {
+				root = v;
+				maxDegree = degree;
+			}
+		}
+
+		long visited = 1L << root;
+		long frontier = visited;
+		parent[root] = -1;
+		while (frontier != 0) {
+			long next = 0;
+			for (long rest = frontier; rest != 0; rest &= rest - 1) {
+				int x = Long.numberOfTrailingZeros(rest);
+				long neighbours = adjacent[x] & enabled;
+				if (parent[x] >= 0)
+					neighbours &= ~(1L << parent[x]);
+				for (; neighbours != 0; neighbours &= neighbours - 1) {
+					int u = Long.numberOfTrailingZeros(neighbours);
+					if ((visited & (1L << u)) != 0)
+						return closeCycle(x, u);
+					visited |= 1L << u;
+					parent[u] = x;
+					next |= 1L << u;
+				}
+			}
+			frontier = next;
+		}
+		// unreachable for a cleaned non empty graph
+		throw new IllegalStateException("No cycle found");
+	}
+
+	/**
+	 * The cycle of the BFS tree paths of x and u and the edge between them
+	 */
+	private int[] closeCycle(int x, int u) {
+		long ancestors = 0;
+		for (int v = x; v >= 0; v = parent[v]) {
+			ancestors |= 1L << v;
+		}
+		int lca = u;
+		while ((ancestors & (1L << lca)) == 0) {
+			lca = parent[lca];
+		}
+
+		int length = 0;
+		for (int v = x; v != lca; v = parent[v]) {
+			length++;
+		}
+		for (int v = u; v != lca; v = parent[v]) {
+			length++;
+		}
+		int[] cycle = new int[length + 1];
+		int k = 0;
+		for (int v = x; v != lca; v = parent[v]) {
+			cycle[k++] = v;
+		}
+		cycle[k++] = lca;
+		for (int v = u; v != lca; v = parent[v]) {
+			cycle[k++] = v;
+		}
+		return cycle;
+	}
+
+	private FvsSolution solution(long deleted, int size) {
+		FvsSolution solution = new FvsSolution(size);
+		for (; deleted != 0; deleted &= deleted - 1) {
+			int v = Long.numberOfTrailingZeros(deleted);
+			solution.add(v, weights[v]);
+		}
+		return solution;
+	}
+
+}
@@ -0,0 +1,57 @@
+/**
+ * The result of an anytime exact solve: the best solution found, a proven
+ * lower bound of the optimal weight and the reason the search ended
+ */
+public class ExactResult {
+
+	/**
+	 * The reasons a search ends
+	 */
+	public enum Status {
+		// the solution is optimal
+		OPTIMAL,
+		// there is no solution within the bound
+		INFEASIBLE,
+		// stopped by the time limit
+		TIME_LIMIT,
+		// stopped by the node limit
+		NODE_LIMIT,
+		// stopped by cancellation
+		CANCELLED
+	}
+
+	// the best solution within the bound or null
+	public final FvsSolution solution;
+
+	// every solution weighs at least this much
+	public final float lowerBound;
+
+	public final Status status;
+
+	public ExactResult(FvsSolution solution, float lowerBound, Status status) {
+		this.solution = solution;
+		this.lowerBound = lowerBound;
+		this.status = status;
+	}
+
+	/**
+	 * The relative gap between the solution and the lower bound
+	 * 
+	 * @return (weight - lower bound) / weight, 0 if the solution is optimal and
+	 *         infinity if there is no solution
+	 */
+	public double gap() {
+		if (solution == null)
+			return Double.POSITIVE_INFINITY;
+		if (status == Status.OPTIMAL || solution.weight() <= 0.0)
+			return 0.0;
+		return Math.max(0.0, (solution.weight() - lowerBound) / solution.weight());
+	}
+
+	@Override
+	public String toString() {
+		return status + " " + (solution == null ? "-" : (float) solution.weight() + " " + solution) + " (lower bound "
+				+ lowerBound + ", gap " + gap() + ")";
+	}
+
+}
@@ -1,29 +1,76 @@
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * A class that holds algorithms to solve the Feedback Vertex Set (FVS)
  */
 public class FeedbackVertexSet {
 
-	// The current boundary of the current BST
-	private static float bound;
+	/**
+	 * The engines available for the exact algorithm
+	 */
+	public enum Strategy {
+		// bounded search tree on semidisjoint and short cycles
+		BRANCHING,
+		// compression of the approximation solution
+		ITERATIVE_COMPRESSION
+	}
+
+	/**
+	 * The branchings of the bounded search tree. Every rule except PICK_OR_FORBID
+	 * branches on the vertices of a cycle in its order and forbids the deletion of
+	 * the vertices tried before, so no solution is searched twice.
+	 */
+	public enum BranchingRule {
+		// the vertices in the order of the cycle
+		CYCLE,
+		// highest degree first
+		DEGREE,
+		// lowest weight / (degree - 1) first
+		RATIO,
+		// delete a vertex or forbid its deletion (merging it with its kept
+		// neighbours), see IterativeCompression
+		PICK_OR_FORBID;
+
+		// the rule used if none is given
+		public static final BranchingRule DEFAULT = RATIO;
+	}
+
+	// the time cap of the local search of main and the batch solver
+	static final long LOCAL_SEARCH_MILLIS = 100;
 
 	/**
-	 * Reads a graph and solves the FVS with the heuristic algorithm, the
-	 * approximation algorithm and the exact algorithm
+	 * Reads a graph and solves the FVS with the heuristic algorithm, the greedy
+	 * algorithm, the approximation algorithm improved by the local search and the
+	 * exact algorithm bounded by the local search solution. With
+	 * "--batch" as first argument many graphs are solved by the
+	 * {@link BatchSolver}, with "--portfolio" all algorithms race on one graph
+	 * in the {@link Portfolio}.
 	 * 
 	 * @param args the argument array (expected to have a length of 1 and the only
 	 *             argument is supposed to be a file path)
 	 */
 	public static void main(String[] args) {
+		// batch mode
+		if (args.length > 0 && args[0].equals("--batch")) {
+			BatchSolver.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+
+		// portfolio mode
+		if (args.length > 0 && args[0].equals("--portfolio")) {
+			Portfolio.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+
 		// check if argument is legal
 		if (args.length != 1) {
 			System.err.println("Exactly one argument is expected, usage: \"java FeedbackVertexSet <GraphFilePath>\"");
@@ -46,37 +93,7 @@ public class FeedbackVertexSet {
 		Graph g = null;
 
 		try {
-			BufferedReader reader = new BufferedReader(new FileReader(file));
-
-			String header = reader.readLine();
-
-			int n = Integer.valueOf(header);
-
-			List<Float> weights = new ArrayList<>();
-			List<List<Integer>> connectionsList = new ArrayList<>();
-
-			for (int i = 0; i < n; i++) {
-				weights.add(Float.valueOf(reader.readLine()));
-				connectionsList.add(new ArrayList<>());
-			}
-
-			String current;
-			while ((current = reader.readLine()) != null) {
-				if (current.equals(""))
-					continue;
-
-				String[] split = current.split(" ");
-
-				int v = Integer.valueOf(split[0]);
-				int w = Integer.valueOf(split[1]);
-
-				connectionsList.get(v).add(w);
-			}
-
-			reader.close();
-
-			g = Graph.createGraph(weights, connectionsList);
-
+			g = GraphLoader.load(file);
 		} catch (IOException e) {
 			e.printStackTrace();
 			return;
@@ -89,11 +106,23 @@ public class FeedbackVertexSet {
 		System.out.println("Heuristic algorithm:");
 		System.out.println();
 		long l1 = System.currentTimeMillis();
-		Tuple<Set<Integer>, Float> solution1 = heuristic(g);
+		FvsSolution solution1 = heuristicSolution(g);
 		long l2 = System.currentTimeMillis();
 		System.out.println("    Exectuion Time: " + (l2 - l1) + " ms");
-		System.out.println("    Solution Weight: " + solution1.r);
-		System.out.println("    Solution Set: " + solution1.l);
+		System.out.println("    Solution Weight: " + (float) solution1.weight());
+		System.out.println("    Solution Set: " + solution1);
+		System.out.println();
+
+		// greedy
+		System.out.println();
+		System.out.println("Greedy algorithm:");
+		System.out.println();
+		l1 = System.currentTimeMillis();
+		FvsSolution greedy = greedySolution(g);
+		l2 = System.currentTimeMillis();
+		System.out.println("    Exectuion Time: " + (l2 - l1) + " ms");
+		System.out.println("    Solution Weight: " + (float) greedy.weight());
+		System.out.println("    Solution Set: " + greedy);
 		System.out.println();
 
 		// approximation
@@ -101,23 +130,45 @@ public class FeedbackVertexSet {
 		System.out.println("Approximation algorithm:");
 		System.out.println();
 		l1 = System.currentTimeMillis();
-		Tuple<Set<Integer>, Float> solution2 = approximation(g);
+		FvsSolution solution2 = approximationSolution(g);
 		l2 = System.currentTimeMillis();
 		System.out.println("    Exectuion Time: " + (l2 - l1) + " ms");
-		System.out.println("    Solution Weight: " + solution2.r);
-		System.out.println("    Solution Set: " + solution2.l);
+		System.out.println("    Solution Weight: " + (float) solution2.weight());
+		System.out.println("    Solution Set: " + solution2);
+		System.out.println();
+
+		// local search
+		System.out.println();
+		System.out.println("Local search (from the approximation):");
+		System.out.println();
+		l1 = System.currentTimeMillis();
+		FvsSolution local = localSearchSolution(g, solution2, LOCAL_SEARCH_MILLIS);
+		l2 = System.currentTimeMillis();
+		System.out.println("    Exectuion Time: " + (l2 - l1) + " ms");
+		System.out.println("    Solution Weight: " + (float) local.weight());
+		System.out.println("    Solution Set: " + local);
+		System.out.println();
+
+		// kernel
+		System.out.println();
+		System.out.println("    " + Kernel.kernelize(g));
 		System.out.println();
 
 		// exact
 		System.out.println();
-		System.out.println("Exact algorithm (1 processor, approximation boundary):");
+		System.out.println("Exact algorithm (1 processor, local search boundary):");
 		System.out.println();
 		l1 = System.currentTimeMillis();
-		Tuple<Set<Integer>, Float> solution3 = exact(g, solution2.r, 1);
+		SolverMetrics metrics = new SolverMetrics();
+		FvsSolution solution3 = exactSolution(g, (float) local.weight(), 1, Strategy.BRANCHING, metrics);
+		// nothing is lighter than the local search solution
+		if (solution3 == null)
+			solution3 = local;
 		l2 = System.currentTimeMillis();
 		System.out.println("    Exectuion Time: " + (l2 - l1) + " ms");
-		System.out.println("    Solution Weight: " + solution3.r);
-		System.out.println("    Solution Set: " + solution3.l);
+		System.out.println("    Solution Weight: " + (float) solution3.weight());
+		System.out.println("    Solution Set: " + solution3);
+		System.out.println("    Metrics: " + metrics.toJson());
 		System.out.println();
 
 	}
@@ -130,11 +181,43 @@ public class FeedbackVertexSet {
 	 * @return the set of vertices contained in a FVS
 	 */
 	public static Tuple<Set<Integer>, Float> heuristic(Graph g) {
-		Set<Integer> solution = new HashSet<>();
+		return toTuple(heuristicSolution(g));
+	}
+
+	/**
+	 * A greedy algorithm that deletes the vertex with the smallest weight /
+	 * (degree - 1) until the graph is acyclic, runs in O(m log n)
+	 * 
+	 * @param g the graph
+	 * @return the set of vertices contained in a FVS
+	 */
+	public static Tuple<Set<Integer>, Float> greedy(Graph g) {
+		return toTuple(greedySolution(g));
+	}
+
+	/**
+	 * A greedy algorithm that deletes the vertex with the smallest weight /
+	 * (degree - 1) until the graph is acyclic, runs in O(m log n)
+	 * 
+	 * @param g the graph
+	 * @return the FVS
+	 */
+	public static FvsSolution greedySolution(Graph g) {
+		return GreedyHeuristic.solve(g);
+	}
+
+	/**
+	 * A simple greedy algorithm that takes a random vertex in a cycle until there
+	 * are no cycles left
+	 * 
+	 * @param g the graph
+	 * @return the FVS or null if the thread was interrupted
+	 */
+	public static FvsSolution heuristicSolution(Graph g) {
+		FvsSolution solution = new FvsSolution();
 
 		List<int[]> cycles = g.findCycles();
 
-		float sumweight = 0.0f;
 		// as long as there are cycles its not a valid FVS
 		while (cycles.size() > 0) {
 			for (int[] cycle : cycles) {
@@ -143,7 +226,7 @@ public class FeedbackVertexSet {
 				int v = -1;
 				float minweight = Float.MAX_VALUE;
 				for (int w : cycle) {
-					float weight = g.vertices[w].originalWeight;
+					float weight = g.originalWeights[w];
 					if (weight < minweight) {
 						v = w;
 						minweight = weight;
@@ -151,35 +234,109 @@ public class FeedbackVertexSet {
 				}
 
 				// add to solution if its not already in the solution
-				if (solution.add(v)) {
-					// remove from graph and update sum
+				if (g.isEnabled(v)) {
+					// remove from graph
 					g.disableVertex(v);
-					sumweight += minweight;
+					solution.add(v, minweight);
 				}
 			}
 
+			// give up if the thread was interrupted (i.e. a finished portfolio)
+			if (Thread.currentThread().isInterrupted()) {
+				g.reset();
+				return null;
+			}
+
 			// update cycles
 			cycles = g.findCycles();
 		}
 
 		g.reset();
 
-		return new Tuple<Set<Integer>, Float>(solution, sumweight);
+		return solution;
 	}
 
 	/**
-	 * Bafna-Berman-Fujito 2-Approximation on FVS
+	 * Improve a FVS by a local search: redundant vertices are removed, 1-swaps and
+	 * 2-for-1 swaps are applied and simulated annealing runs until the time cap
+	 * 
+	 * @param g      the graph
+	 * @param start  the FVS to improve
+	 * @param millis the time cap of the search
+	 * @return the set of vertices contained in the improved FVS
+	 */
+	public static Tuple<Set<Integer>, Float> localSearch(Graph g, FvsSolution start, long millis) {
+		return toTuple(localSearchSolution(g, start, millis));
+	}
+
+	/**
+	 * Improve a FVS by a local search: redundant vertices are removed, 1-swaps and
+	 * 2-for-1 swaps are applied and simulated annealing runs until the time cap
+	 * 
+	 * @param g      the graph
+	 * @param start  the FVS to improve
+	 * @param millis the time cap of the search
+	 * @return the improved FVS, not heavier than the start
+	 */
+	public static FvsSolution localSearchSolution(Graph g, FvsSolution start, long millis) {
+		return LocalSearch.improve(g, start, millis, 0);
+	}
+
+	/**
+	 * Bafna-Berman-Fujito 2-Approximation on FVS, applied to the kernel of the
+	 * graph
 	 * 
 	 * @param g the graph
 	 * @return the set of vertices contained in the 2 approx FVS
 	 */
 	public static Tuple<Set<Integer>, Float> approximation(Graph g) {
-		List<Integer> stack = new ArrayList<>();
+		return toTuple(approximationSolution(g));
+	}
+
+	/**
+	 * Bafna-Berman-Fujito 2-Approximation on FVS, applied to the kernel of the
+	 * graph
+	 * 
+	 * @param g the graph
+	 * @return the 2 approx FVS
+	 */
+	public static FvsSolution approximationSolution(Graph g) {
+		Kernel kernel = Kernel.kernelize(g);
+
+		return kernel.lift(approximate(kernel.graph));
+	}
+
+	/**
+	 * Bafna-Berman-Fujito 2-Approximation on FVS. If the thread is interrupted,
+	 * the vertices left on cycles are taken at once, so the FVS loses the ratio.
+	 * 
+	 * @param g the graph
+	 * @return the 2 approx FVS
+	 */
+	private static FvsSolution approximate(Graph g) {
+		// removed vertices in order of removal (every vertex is removed once)
+		int[] stack = new int[g.verticesCount];
+		int stackSize = 0;
+
+		// the weights are changed in place, not on the trail (nothing is undone,
+		// reset() restores them), so the trail only grows with the disablings
+		float[] weights = g.weights;
 
 		g.cleanUp();
 		while (g.enabledVerticesCount > 0) {
+			// an interrupted thread takes all vertices left on cycles at once
+			if (Thread.currentThread().isInterrupted()) {
+				for (int v = 0; v < g.verticesCount; v++) {
+					if (g.isEnabled(v)) {
+						stack[stackSize++] = v;
+						g.disableVertex(v);
+					}
+				}
+				break;
+			}
+
 			// see if semidisjoint cycle exists
-			int[] semidisjoint = g.getDisjointSet();
+			int[] semidisjoint = g.findSemidisjointCycle();
 
 			if (semidisjoint != null) {
 				// semidisjoint cycle exists
@@ -188,17 +345,17 @@ public class FeedbackVertexSet {
 
 				// find min weight
 				for (int v : semidisjoint) {
-					float vgamma = g.vertices[v].weight;
+					float vgamma = g.weights[v];
 					gamma = Math.min(gamma, vgamma);
 				}
 
 				// update weights
 				for (int v : semidisjoint) {
-					g.vertices[v].weight -= gamma;
+					weights[v] -= gamma;
 
 					// check if its part of a solution
-					if (g.vertices[v].weight <= 0) {
-						stack.add(v);
+					if (weights[v] <= 0) {
+						stack[stackSize++] = v;
 						g.disableVertex(v);
 					}
 				}
@@ -208,24 +365,27 @@ public class FeedbackVertexSet {
 
 				// find smallest gamma
 				float gamma = Float.MAX_VALUE;
+				int argmin = -1;
 
-				for (Vertex v : g.vertices) {
-					if (!v.enabled)
+				for (int i = 0; i < g.verticesCount; i++) {
+					if (!g.isEnabled(i))
 						continue;
-					float vgamma = v.weight / ((float) (v.degree - 1));
-					gamma = Math.min(vgamma, gamma);
+					float vgamma = g.weights[i] / ((float) (g.degrees[i] - 1));
+					if (vgamma < gamma) {
+						gamma = vgamma;
+						argmin = i;
+					}
 				}
 
-				// update weights
-				for (int i = 0; i < g.vertices.length; i++) {
-					Vertex v = g.vertices[i];
-					if (!v.enabled)
+				// update weights (the minimum reaches 0 despite rounding)
+				for (int i = 0; i < g.verticesCount; i++) {
+					if (!g.isEnabled(i))
 						continue;
-					v.weight -= (gamma * (v.degree - 1));
+					weights[i] = i == argmin ? 0.0f : weights[i] - gamma * (g.degrees[i] - 1);
 
 					// check if its part of a solution
-					if (v.weight <= 0) {
-						stack.add(i);
+					if (weights[i] <= 0) {
+						stack[stackSize++] = i;
 						g.disableVertex(i);
 					}
 				}
@@ -237,325 +397,658 @@ public class FeedbackVertexSet {
 
 		// reset graph to final removed graph to check for redundant vertices
 		g.reset();
-		for (Integer i : stack) {
-			g.disableVertex(i);
+		for (int k = 0; k < stackSize; k++) {
+			g.disableVertex(stack[k]);
+		}
+
+		FvsSolution solution = removeRedundant(g, stack, stackSize);
+
+		g.reset();
+
+		return solution;
+	}
+
+	/**
+	 * Get the non redundant vertices of a FVS. The vertices are enabled again in
+	 * reverse order of removal and a vertex is redundant if no two of its enabled
+	 * neighbours are connected, so a union-find over the components of the
+	 * remaining forest answers every check in near-constant time.
+	 * 
+	 * @param g         the graph with the FVS disabled
+	 * @param stack     the vertices of the FVS in order of removal
+	 * @param stackSize the number of vertices
+	 * @return the non redundant vertices
+	 */
+	private static FvsSolution removeRedundant(Graph g, int[] stack, int stackSize) {
+		// components of the forest
+		int[] parent = new int[g.verticesCount];
+		for (int v = 0; v < g.verticesCount; v++) {
+			parent[v] = v;
+		}
+		for (int v = 0; v < g.verticesCount; v++) {
+			if (!g.isEnabled(v))
+				continue;
+			for (int i = g.offsets[v]; i < g.offsets[v + 1]; i++) {
+				int other = g.neighbors[i];
+				if (other < v && g.isEnabled(other))
+					parent[find(parent, v)] = find(parent, other);
+			}
 		}
 
+		// the components seen by the current vertex
+		int[] seen = new int[g.verticesCount];
+		Arrays.fill(seen, -1);
+
 		// get non redundant solution
-		Set<Integer> solution = new HashSet<>();
-		float weight = 0.0f;
+		FvsSolution solution = new FvsSolution(stackSize);
 
-		while (stack.size() > 0) {
+		while (stackSize > 0) {
 			// pop from stack
-			int i = stack.get(stack.size() - 1);
-			stack.remove(stack.size() - 1);
+			int v = stack[--stackSize];
+
+			// check redundancy by looking for two neighbours in the same component
+			boolean redundant = true;
+			for (int i = g.offsets[v]; i < g.offsets[v + 1] && redundant; i++) {
+				int other = g.neighbors[i];
+				if (other == v) {
+					redundant = false;
+				} else if (g.isEnabled(other)) {
+					int root = find(parent, other);
+					if (seen[root] == v)
+						redundant = false;
+					seen[root] = v;
+				}
+			}
 
-			// check redundancy with enabling vertex and checking if FVS is violated
-			g.enableVertex(i);
-			if (g.findCycles().size() > 0) {
+			if (redundant) {
+				// join the components of the neighbours
+				g.enableVertex(v);
+				for (int i = g.offsets[v]; i < g.offsets[v + 1]; i++) {
+					int other = g.neighbors[i];
+					if (g.isEnabled(other))
+						parent[find(parent, other)] = find(parent, v);
+				}
+			} else {
 				// non redundant
-
-				solution.add(i);
-				g.disableVertex(i);
-				weight += g.vertices[i].originalWeight;
+				solution.add(v, g.originalWeights[v]);
 			}
 		}
 
-		g.reset();
+		return solution;
+	}
 
-		return new Tuple<Set<Integer>, Float>(solution, weight);
+	private static int find(int[] parent, int v) {
+		while (parent[v] != v) {
+			parent[v] = parent[parent[v]];
+			v = parent[v];
+		}
+		return v;
 	}
 
 	/**
-	 * Determine the exact Feedback Vertex Set of a graph
+	 * Determine the exact Feedback Vertex Set of a graph with the bounded search
+	 * tree. The search runs on the kernel of the graph.
 	 * 
 	 * @param g     the graph
 	 * @param bound the bounded weight or -1 if no bound is given
 	 * @return the FVS
 	 */
 	public static Tuple<Set<Integer>, Float> exact(Graph g, float bound, int processors) {
-		Tuple<Set<Integer>, Float> solution;
-
-		// update bond
-		FeedbackVertexSet.bound = bound;
-
-		if (bound < 0.0f) {
-			// no bound specified
-
-			// calc max bound
-			float maxbound = 0.0f;
-			for (Vertex v : g.vertices) {
-				maxbound += v.originalWeight;
-			}
-
-			// update bond
-			FeedbackVertexSet.bound = maxbound;
-		}
-
-		solution = bstFVS(g, 0, processors);
-
-		g.reset();
-
-		return solution;
+		return exact(g, bound, processors, Strategy.BRANCHING);
 	}
 
 	/**
-	 * A bounded search tree that is used for exact determination of the FVS
+	 * Determine the exact Feedback Vertex Set of a graph. The search runs on the
+	 * kernel of the graph.
 	 * 
-	 * @param g          the graph
-	 * @param bound2     the bound (found with the approximation i.e.)
-	 * @param processors number of processors used
-	 * @return the founded solution in this graph or null if solution would exceed
-	 *         bound
+	 * @param g        the graph
+	 * @param bound    the bounded weight or -1 if no bound is given
+	 * @param strategy the exact engine (iterative compression runs on one
+	 *                 processor)
+	 * @return the FVS
 	 */
-	private static Tuple<Set<Integer>, Float> bstFVS(Graph g, float current, int processors) {
-
-		////////// CHECK //////////
+	public static Tuple<Set<Integer>, Float> exact(Graph g, float bound, int processors, Strategy strategy) {
+		return toTuple(exactSolution(g, bound, processors, strategy));
+	}
 
-		// see if bound is exceeded
-		if (current > bound) {
+	/**
+	 * Convert a solution to the tuple representation (set of vertices, weight)
+	 * 
+	 * @param solution the solution or null
+	 * @return the tuple or null if there is no solution
+	 */
+	private static Tuple<Set<Integer>, Float> toTuple(FvsSolution solution) {
+		if (solution == null)
 			return null;
+		Set<Integer> set = new HashSet<>();
+		for (int i = 0; i < solution.size(); i++) {
+			set.add(solution.get(i));
 		}
+		return new Tuple<Set<Integer>, Float>(set, (float) solution.weight());
+	}
 
-		List<int[]> cycles = g.findCycles();
-
-		// see if it is already acyclic
-		if (cycles.size() == 0)
-			return new Tuple<>(new HashSet<>(), current);
+	/**
+	 * Determine the exact Feedback Vertex Set of a graph. The search runs on the
+	 * kernel of the graph.
+	 * 
+	 * @param g        the graph
+	 * @param bound    the bounded weight or -1 if no bound is given
+	 * @param strategy the exact engine (iterative compression runs on one
+	 *                 processor)
+	 * @return the FVS or null if every FVS exceeds the bound
+	 */
+	public static FvsSolution exactSolution(Graph g, float bound, int processors, Strategy strategy) {
+		return exactSolution(g, bound, processors, strategy, null);
+	}
 
-		////////// BRANCH //////////
+	/**
+	 * Determine the exact Feedback Vertex Set of a graph. The search runs on the
+	 * kernel of the graph.
+	 * 
+	 * @param g        the graph
+	 * @param bound    the bounded weight or -1 if no bound is given
+	 * @param strategy the exact engine (iterative compression runs on one
+	 *                 processor)
+	 * @param metrics  the metrics filled by the solve or null
+	 * @return the FVS or null if every FVS exceeds the bound
+	 */
+	public static FvsSolution exactSolution(Graph g, float bound, int processors, Strategy strategy,
+			SolverMetrics metrics) {
+		return exactAnytime(g, bound, processors, strategy, null, metrics).solution;
+	}
 
-		Tuple<Set<Integer>, Float> solution = null;
+	/**
+	 * Determine the Feedback Vertex Set of a graph within limits. The search stops
+	 * when a limit of the control is reached or it is cancelled and returns the
+	 * best solution found so far with a lower bound of the optimum. Without a
+	 * control it runs to the end like
+	 * {@link #exactSolution(Graph, float, int, Strategy)}.
+	 * 
+	 * The connected components of the kernel are solved independently (in one
+	 * pool if there are several processors), each starting with its greedy
+	 * solution improved by the local search, so the search trees of the
+	 * components are not multiplied.
+	 * 
+	 * @param g        the graph
+	 * @param bound    the bounded weight or -1 if no bound is given
+	 * @param strategy the exact engine (iterative compression runs on one
+	 *                 processor)
+	 * @param control  the limits, listener and cancellation or null
+	 * @param metrics  the metrics filled by the solve or null
+	 * @return the result
+	 */
+	public static ExactResult exactAnytime(Graph g, float bound, int processors, Strategy strategy,
+			SolveControl control, SolverMetrics metrics) {
+		// the limits hold for the whole solve, the phases before the search included
+		SearchLimits limits = control == null ? null : new SearchLimits(control);
+		long deadline = limits == null ? Long.MAX_VALUE : limits.getDeadline();
 
-		// clean graph (remove vertices with deg <= 1)
-		List<Integer> removed = g.cleanUp();
+		long start = SolverMetrics.start(metrics);
+		Kernel kernel = Kernel.kernelize(g);
+		SolverMetrics.stop(metrics, SolverMetrics.Phase.KERNEL, start);
 
-		// see if semidisjoint cycle is available
-		boolean foundSemidisjointCycle = false;
-		for (int[] cycle : cycles) {
+		g.reset();
 
-			// checking if its semidisjoint
-			short countDegGreater2 = 0;
-			int semidisjointVertex = -1;
+		// forced vertices are part of every solution found, the bound is inclusive,
+		// so it is raised against rounding errors of the float weights
+		if (bound >= 0.0f) {
+			bound = bound / LowerBound.TOLERANCE - kernel.forcedWeight;
+			if (bound < 0.0f)
+				return new ExactResult(null, kernel.forcedWeight, ExactResult.Status.INFEASIBLE);
+		} else {
+			// no bound specified
 
-			for (int v : cycle) {
-				if (g.vertices[v].degree > 2) {
-					countDegGreater2++;
-					if (countDegGreater2 > 1) {
-						break;
-					}
-					semidisjointVertex = v;
-				}
+			// calc max bound
+			float maxbound = 0.0f;
+			for (float weight : kernel.graph.originalWeights) {
+				maxbound += weight;
 			}
 
-			if (countDegGreater2 <= 1) {
-				// semidisjoint cycle is available
-				foundSemidisjointCycle = true;
+			bound = maxbound;
+		}
 
-				// get smallest weight in cycle
-				int smallestID = -1;
-				float smallestWeight = Float.MAX_VALUE;
+		// the components of the kernel are solved independently (largest first)
+		List<int[]> vertices = kernel.graph.components();
+		vertices.sort((a, b) -> b.length - a.length);
+		int count = vertices.size();
+		Graph[] components = new Graph[count];
+		float[] lowerBounds = new float[count];
+		float lowerBound = 0.0f;
+		for (int c = 0; c < count; c++) {
+			components[c] = kernel.graph.subgraph(vertices.get(c));
+			lowerBounds[c] = rootLowerBound(components[c], bound, deadline);
+			lowerBound += lowerBounds[c];
+		}
+		if (lowerBound > bound)
+			return new ExactResult(null, lowerBound + kernel.forcedWeight, ExactResult.Status.INFEASIBLE);
+
+		// a component may use the bound left by the lower bounds of the others, also
+		// of a bound shared while the search runs
+		Incumbents incumbents = new Incumbents(kernel, vertices, control == null ? null : control.getListener(),
+				metrics);
+		TranspositionTable table = transpositionTable(components, strategy, control);
+		SearchContext[] contexts = new SearchContext[count];
+		for (int c = 0; c < count; c++) {
+			int component = c;
+			contexts[c] = new SearchContext(bound - (lowerBound - lowerBounds[c]), metrics, limits,
+					solution -> incumbents.improved(component, solution), table,
+					control == null ? BranchingRule.DEFAULT : control.getBranching(),
+					kernel.forcedWeight + (lowerBound - lowerBounds[c]), lowerBounds[c]);
+		}
 
-				for (int v : cycle) {
-					float weight = g.vertices[v].weight;
-					if (weight < smallestWeight) {
-						smallestID = v;
-						smallestWeight = weight;
-					}
-				}
+		// every component starts with the greedy solution, so there always is one,
+		// improved by the local search if the component is searched with a bound
+		long millis = control == null ? LocalSearch.DEFAULT_MILLIS : control.getLocalSearchTime();
+		int searched = 0;
+		for (Graph component : components) {
+			if (!BitsetSolver.fits(component))
+				searched += component.verticesCount;
+		}
+		for (int c = 0; c < count; c++) {
+			FvsSolution seed = GreedyHeuristic.solve(components[c]);
+			if (millis >= 0 && !BitsetSolver.fits(components[c]) && (limits == null || !limits.expired())) {
+				start = SolverMetrics.start(metrics);
+				seed = LocalSearch.improve(components[c], seed, millis * components[c].verticesCount / searched, c,
+						deadline);
+				SolverMetrics.stop(metrics, SolverMetrics.Phase.LOCAL_SEARCH, start);
+			}
+			contexts[c].offer(seed, (float) seed.weight());
+		}
+		if (count == 0)
+			incumbents.publish();
 
-				// make array of possible candidates
-				int[] possible;
-				if (semidisjointVertex != -1 && semidisjointVertex != smallestID) {
-					possible = new int[] { smallestID, semidisjointVertex };
-				} else {
-					possible = new int[] { smallestID };
+		start = SolverMetrics.start(metrics);
+		if (processors == 1) {
+			for (int c = 0; c < count; c++) {
+				exactComponent(components[c], strategy, contexts[c], false);
+			}
+		} else {
+			// the components share the pool of the parallel search
+			ForkJoinPool pool = new ForkJoinPool(processors);
+			try {
+				List<ComponentTask> tasks = new ArrayList<>(count);
+				for (int c = 0; c < count; c++) {
+					tasks.add(new ComponentTask(components[c], strategy, contexts[c]));
 				}
-
-				// branch on possible candidates
-				solution = decide(g, current, possible, processors);
-
-				break;
+				pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+			} finally {
+				pool.shutdown();
+			}
+		}
+		SolverMetrics.stop(metrics, SolverMetrics.Phase.SEARCH, start);
+
+		// merge the components
+		FvsSolution solution = new FvsSolution(kernel.graph.verticesCount);
+		boolean feasible = true;
+		boolean shared = false;
+		lowerBound = 0.0f;
+		for (int c = 0; c < count; c++) {
+			SearchContext context = contexts[c];
+			FvsSolution incumbent = context.getIncumbent();
+			int[] ids = vertices.get(c);
+			for (int i = 0; i < incumbent.size(); i++) {
+				solution.add(ids[incumbent.get(i)], components[c].originalWeights[incumbent.get(i)]);
 			}
+			// the shared bound cut the search below the incumbent
+			shared |= context.getIncumbentWeight() > context.getBound();
+
+			// no unexplored solution is lighter than the lightest stopped node and the
+			// search did not look beyond the bound
+			float componentBound = Math.min(context.getIncumbentWeight(), context.getStoppedWeight());
+			componentBound = Math.min(componentBound, context.getBound());
+			lowerBound += Math.max(componentBound, lowerBounds[c]);
+		}
+		feasible &= (float) solution.weight() <= bound;
+
+		ExactResult.Status status = limits == null ? null : limits.getStop();
+		if (status == null) {
+			// the search is complete, a solution shared from outside is not beaten
+			feasible &= !shared;
+			status = feasible ? ExactResult.Status.OPTIMAL : ExactResult.Status.INFEASIBLE;
+			if (feasible)
+				lowerBound = (float) solution.weight();
+		}
+		return new ExactResult(feasible ? kernel.lift(solution) : null, lowerBound + kernel.forcedWeight, status);
+	}
 
+	/**
+	 * Create the transposition table shared by the searches of the components. It
+	 * is only used by the branching search of components too large for the
+	 * {@link BitsetSolver}, which are hashed.
+	 * 
+	 * @return the table or null if no search uses one
+	 */
+	private static TranspositionTable transpositionTable(Graph[] components, Strategy strategy,
+			SolveControl control) {
+		int megabytes = control == null ? TranspositionTable.DEFAULT_MEGABYTES : control.getTableSize();
+		BranchingRule rule = control == null ? BranchingRule.DEFAULT : control.getBranching();
+		if (strategy != Strategy.BRANCHING || rule == BranchingRule.PICK_OR_FORBID || megabytes <= 0)
+			return null;
+		int vertices = 0;
+		for (Graph component : components) {
+			if (!BitsetSolver.fits(component)) {
+				component.useZobristHash();
+				vertices += component.verticesCount;
+			}
 		}
+		return vertices == 0 ? null : new TranspositionTable(megabytes, vertices);
+	}
 
-		// see if semidisjoint cycle was found
-		if (!foundSemidisjointCycle) {
-			// else branch smallest cycle (smallest cycle length)
+	/**
+	 * A lower bound of the FVS of a kernel graph, it is computed once and handed
+	 * to the root node of the search
+	 * 
+	 * @param g        the kernel graph
+	 * @param limit    the bound is not refined further once it exceeds this value
+	 * @param deadline the bound is not refined after this deadline (nanoseconds)
+	 * @return the lower bound
+	 */
+	private static float rootLowerBound(Graph g, float limit, long deadline) {
+		int mark = g.mark();
+		g.cleanUp();
+		float lowerBound = LowerBound.of(g, limit, deadline);
+		g.undoTo(mark);
+		return lowerBound;
+	}
 
-			// find smallest cycle (length)
-			int[] smallest = cycles.get(0);
-			for (int[] cycle : cycles) {
-				if (cycle.length < smallest.length) {
-					smallest = cycle;
-				}
-			}
+	/**
+	 * Determine the exact Feedback Vertex Set of a connected component of the
+	 * kernel, the solutions are offered to the context. Components with at most
+	 * 64 vertices are solved by the {@link BitsetSolver} whatever the strategy.
+	 * 
+	 * @param g        the component
+	 * @param strategy the exact engine
+	 * @param context  the context holding the bound and the best solution
+	 * @param parallel true if the search may fork (inside a fork/join pool)
+	 */
+	private static void exactComponent(Graph g, Strategy strategy, SearchContext context, boolean parallel) {
+		SolverMetrics metrics = context.metrics;
+
+		if (BitsetSolver.fits(g)) {
+			// small components are solved with bit operations
+			BitsetSolver.solve(g, context);
+		} else if (strategy == Strategy.ITERATIVE_COMPRESSION) {
+			// compress the approximation solution
+			long start = SolverMetrics.start(metrics);
+			FvsSolution approximation = approximate(g);
+			SolverMetrics.stop(metrics, SolverMetrics.Phase.APPROXIMATION, start);
+			IterativeCompression.solve(g, approximation, context);
+		} else if (context.rule == BranchingRule.PICK_OR_FORBID) {
+			IterativeCompression.branch(g, context);
+		} else if (!parallel || g.verticesCount < SearchTask.SPLIT_SIZE) {
+			bstFVS(g, 0, new FvsSolution(g.verticesCount), context);
+		} else {
+			// work stealing search on one copy of the graph per worker
+			ThreadLocal<Graph> graphs = ThreadLocal.withInitial(() -> {
+				long copyStart = SolverMetrics.start(metrics);
+				Graph copy = g.copy();
+				SolverMetrics.stop(metrics, SolverMetrics.Phase.COPY, copyStart);
+				return copy;
+			});
+			new SearchTask(graphs, new int[0], new int[0], 0, context).invoke();
+		}
 
-			// branch on every vertex of smallest cycle
+		g.reset();
+	}
 
-			solution = decide(g, current, smallest, processors);
+	/**
+	 * The incumbents of the components of a kernel. Once every component has one,
+	 * every improvement is recorded in the metrics and passed to the listener as a
+	 * solution of the input graph.
+	 */
+	private static class Incumbents {
+
+		private final Kernel kernel;
+		private final List<int[]> vertices;
+		private final SolveControl.Listener listener;
+		private final SolverMetrics metrics;
+
+		private final FvsSolution[] solutions;
+		private int missing;
+
+		Incumbents(Kernel kernel, List<int[]> vertices, SolveControl.Listener listener, SolverMetrics metrics) {
+			this.kernel = kernel;
+			this.vertices = vertices;
+			this.listener = listener;
+			this.metrics = metrics;
+			this.solutions = new FvsSolution[vertices.size()];
+			this.missing = solutions.length;
 		}
 
-		// enable all vertices disabled by cleaning (kernel)
-		for (Integer i : removed) {
-			g.enableVertex(i);
+		/**
+		 * Record the new incumbent of a component
+		 * 
+		 * @param component the component
+		 * @param solution  the incumbent of the component
+		 */
+		synchronized void improved(int component, FvsSolution solution) {
+			if (solutions[component] == null)
+				missing--;
+			solutions[component] = solution;
+			if (missing == 0)
+				publish();
+		}
+
+		/**
+		 * Pass the merged incumbents on
+		 */
+		synchronized void publish() {
+			if (metrics == null && listener == null)
+				return;
+			FvsSolution merged = new FvsSolution(kernel.graph.verticesCount);
+			for (int c = 0; c < solutions.length; c++) {
+				int[] ids = vertices.get(c);
+				for (int i = 0; i < solutions[c].size(); i++) {
+					int v = ids[solutions[c].get(i)];
+					merged.add(v, kernel.graph.originalWeights[v]);
+				}
+			}
+			FvsSolution lifted = kernel.lift(merged);
+			if (metrics != null)
+				metrics.incumbent((float) lifted.weight());
+			if (listener != null)
+				listener.improved(lifted);
 		}
 
-		return solution;
 	}
 
 	/**
-	 * A method that decides which of the possible vertices are the best decision
-	 * for the FVS (done by branching until solution). Parallelization offered.
-	 * 
-	 * @param g        the graph
-	 * @param bound2   the bound
-	 * @param vertices all possible vertices
-	 * @return the optimal soltuion
+	 * The search of one connected component of the kernel as a fork/join task
 	 */
-	private static Tuple<Set<Integer>, Float> decide(Graph g, float current, int[] vertices, int processors) {
-		// check for parallelization
-		if (processors == 1) {
-			return decide(g, current, vertices);
-		}
+	private static class ComponentTask extends RecursiveAction {
 
-		// create solutions list
-		CopyOnWriteArrayList<Tuple<Set<Integer>, Float>> solutions = new CopyOnWriteArrayList<Tuple<Set<Integer>, Float>>();
+		private static final long serialVersionUID = 1L;
 
-		// threads
-		Thread[] threads;
+		private final Graph g;
+		private final Strategy strategy;
+		private final SearchContext context;
 
-		if (vertices.length >= processors) {
-			// less processors than vertices
+		ComponentTask(Graph g, Strategy strategy, SearchContext context) {
+			this.g = g;
+			this.strategy = strategy;
+			this.context = context;
+		}
 
-			threads = new Thread[processors];
+		@Override
+		protected void compute() {
+			exactComponent(g, strategy, context, true);
+		}
 
-			// as long as there are not assigned vertices
-			int verticesUsed = 0;
-			while (verticesUsed < vertices.length) {
+	}
 
-				// see if thread any processor is available
-				int available = -1;
+	/**
+	 * A bounded search tree that is used for exact determination of the FVS. No
+	 * parallelization. Solutions are offered to the context.
+	 * 
+	 * @param g       the graph
+	 * @param current the weight of the vertices chosen so far
+	 * @param path    the vertices chosen so far
+	 * @param context the context holding the bound (found with the approximation
+	 *                i.e.) and the best solution
+	 */
+	private static void bstFVS(Graph g, float current, FvsSolution path, SearchContext context) {
 
-				for (int i = 0; i < threads.length; i++) {
+		SolverMetrics metrics = context.metrics;
 
-					// check if its even initialized
-					if (threads[i] == null) {
-						available = i;
-						break;
-					}
+		////////// CHECK //////////
 
-					try {
-						threads[i].join(1);
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
+		// see if bound is exceeded or the best solution can not be improved
+		if (context.prunes(current)) {
+			if (metrics != null)
+				metrics.prune(SolverMetrics.Prune.BOUND);
+			return;
+		}
+		// see if a limit is reached or the search was cancelled
+		if (context.stops(current))
+			return;
+		if (metrics != null)
+			metrics.node(path.size());
 
-					// check if its running
-					if (!threads[i].isAlive()) {
-						available = i;
-						break;
-					}
-				}
+		// see if it is already acyclic
+		long start = SolverMetrics.start(metrics);
+		boolean acyclic = g.isAcyclic();
+		SolverMetrics.stop(metrics, SolverMetrics.Phase.ACYCLIC, start);
+		if (acyclic) {
+			context.offer(path, current);
+			return;
+		}
 
-				// setup new thread if processor available
-				if (available != -1) {
-					int v = vertices[verticesUsed++];
+		////////// BRANCH //////////
 
-					threads[available] = new Thread(new Runnable() {
+		// clean graph (remove vertices with deg <= 1)
+		int mark = g.mark();
+		start = SolverMetrics.start(metrics);
+		g.cleanUp();
+		SolverMetrics.stop(metrics, SolverMetrics.Phase.CLEAN_UP, start);
+
+		// see if the rest was solved before (reached by another order of decisions)
+		TranspositionTable table = context.table;
+		long hash = g.getHash();
+		if (table != null && context.prunes(current + table.probe(hash))) {
+			if (metrics != null)
+				metrics.prune(SolverMetrics.Prune.TRANSPOSITION);
+			g.undoTo(mark);
+			return;
+		}
 
-						@Override
-						public void run() {
-							// copy graph
-							Graph copy = g.copy();
+		// see if the lower bound of the rest exceeds the bound (the one of the root
+		// is known)
+		start = SolverMetrics.start(metrics);
+		float lowerBound = path.size() == 0 && context.rootLowerBound >= 0.0f ? context.rootLowerBound
+				: LowerBound.of(g, context.getBound() - current);
+		SolverMetrics.stop(metrics, SolverMetrics.Phase.LOWER_BOUND, start);
+		if (context.prunes(current + lowerBound)) {
+			if (metrics != null)
+				metrics.prune(SolverMetrics.Prune.LOWER_BOUND);
+			if (table != null)
+				table.store(hash, lowerBound, g.enabledVerticesCount);
+			g.undoTo(mark);
+			return;
+		}
 
-							// create solution
-							copy.disableVertex(v);
-							Tuple<Set<Integer>, Float> solution = bstFVS(copy, current + copy.vertices[v].weight, 1);
-							if (solution != null) {
-								solution.l.add(v);
-								// update bond
-								bound = Math.min(bound, solution.r);
-							}
+		// branch on possible candidates
+		decide(g, current, candidates(g, context), path, context);
 
-							// adding to solutions
-							solutions.add(solution);
-						}
-					});
+		// nothing lighter than the incumbent (or the bound) is left in the rest,
+		// unless the search was stopped
+		if (table != null && context.getStop() == null) {
+			float solved = Math.min(context.getIncumbentWeight(), context.getBound());
+			table.store(hash, solved - current, g.enabledVerticesCount);
+		}
 
-					// start thread
-					threads[available].start();
+		// enable all vertices disabled by cleaning (kernel)
+		g.undoTo(mark);
+	}
 
-				}
+	/**
+	 * Determine the vertices to branch on in a cleaned graph (no vertices with deg
+	 * <= 1) in the order of the branching rule. Forbidden vertices are no
+	 * candidates.
+	 * 
+	 * @param g       the graph
+	 * @param context the context holding the branching rule
+	 * @return the lightest vertex and the vertex with a degree over 2 of a
+	 *         semidisjoint cycle or else all vertices of the smallest cycle, empty
+	 *         if all of them are forbidden
+	 */
+	private static int[] candidates(Graph g, SearchContext context) {
+		SolverMetrics metrics = context.metrics;
+		long start = SolverMetrics.start(metrics);
 
+		// see if semidisjoint cycle is available
+		int[] cycle = g.findSemidisjointCycle();
+		int[] candidates;
+		if (cycle == null) {
+			// else branch on every vertex of smallest cycle (smallest cycle length)
+			int[] shortest = g.findShortestCycle();
+			if (metrics != null)
+				metrics.branch(SolverMetrics.Branch.SHORTEST_CYCLE);
+			int count = 0;
+			for (int v : shortest) {
+				if (!g.isForbidden(v))
+					shortest[count++] = v;
 			}
-
+			candidates = Arrays.copyOf(shortest, count);
 		} else {
-			// less vertices than processors
-			threads = new Thread[vertices.length];
+			if (metrics != null)
+				metrics.branch(SolverMetrics.Branch.SEMIDISJOINT);
 
-			// sub processors count calculation
-			int subProcessCount = processors / vertices.length;
-			int over = processors % vertices.length;
+			// the only vertex with a degree over 2 (if there is one)
+			int semidisjointVertex = -1;
 
-			// create threads
-			for (int i = 0; i < threads.length; i++) {
-				int v = vertices[i];
-				int processorsCount = (i < over) ? 1 + subProcessCount : subProcessCount;
-				threads[i] = new Thread(new Runnable() {
-
-					@Override
-					public void run() {
-						// copy graph
-						Graph copy = g.copy();
-
-						// create solution
-						copy.disableVertex(v);
-						Tuple<Set<Integer>, Float> solution = bstFVS(copy, current + copy.vertices[v].weight,
-								processorsCount);
-						if (solution != null) {
-							solution.l.add(v);
-							// update bond
-							bound = Math.min(bound, solution.r);
-						}
-
-						// adding to solutions
-						solutions.add(solution);
-					}
-				});
+			// get smallest weight in cycle
+			int smallestID = -1;
+			float smallestWeight = Float.MAX_VALUE;
 
-				// start thread
-				threads[i].start();
+			for (int v : cycle) {
+				if (g.isForbidden(v))
+					continue;
+				if (g.degrees[v] > 2)
+					semidisjointVertex = v;
+				float weight = g.weights[v];
+				if (weight < smallestWeight) {
+					smallestID = v;
+					smallestWeight = weight;
+				}
 			}
 
+			// make array of possible candidates
+			if (smallestID == -1)
+				candidates = new int[0];
+			else if (semidisjointVertex != -1 && semidisjointVertex != smallestID)
+				candidates = new int[] { smallestID, semidisjointVertex };
+			else
+				candidates = new int[] { smallestID };
 		}
 
-		// wait for threads to be done
-		for (int i = 0; i < threads.length; i++) {
-			if (threads[i] != null)
-				try {
-					threads[i].join();
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-		}
-
-		// pick best solution
-		Tuple<Set<Integer>, Float> solution = null;
+		order(g, candidates, context.rule);
+		SolverMetrics.stop(metrics, SolverMetrics.Phase.CANDIDATES, start);
+		return candidates;
+	}
 
-		for (Tuple<Set<Integer>, Float> solution2 : solutions) {
-			// compare and take best result
-			if (solution == null) {
-				solution = solution2;
-			} else if (solution2 != null) {
-				if (solution2.r < solution.r) {
-					solution = solution2;
-				}
+	/**
+	 * Sort candidates by a branching rule, the most promising first
+	 */
+	private static void order(Graph g, int[] candidates, BranchingRule rule) {
+		if (rule == BranchingRule.CYCLE)
+			return;
+		// insertion sort, cycles are short
+		for (int i = 1; i < candidates.length; i++) {
+			int v = candidates[i];
+			float key = key(g, v, rule);
+			int j = i - 1;
+			while (j >= 0 && key(g, candidates[j], rule) > key) {
+				candidates[j + 1] = candidates[j];
+				j--;
 			}
+			candidates[j + 1] = v;
 		}
+	}
 
-		return solution;
+	private static float key(Graph g, int v, BranchingRule rule) {
+		if (rule == BranchingRule.DEGREE)
+			return -g.degrees[v];
+		return g.weights[v] / (g.degrees[v] - 1);
 	}
 
 	/**
@@ -563,37 +1056,132 @@ public class FeedbackVertexSet {
 	 * for the FVS (done by branching until solution). No parallelization.
 	 * 
 	 * @param g        the graph
-	 * @param bound    the bound
+	 * @param current  the weight of the vertices chosen so far
 	 * @param vertices all possible vertices
-	 * @return the optimal soltuion
+	 * @param path     the vertices chosen so far
+	 * @param context  the context holding the bound and the best solution
 	 */
-	private static Tuple<Set<Integer>, Float> decide(Graph g, float current, int[] vertices) {
-		// current best solution
-		Tuple<Set<Integer>, Float> solution = null;
-
+	private static void decide(Graph g, float current, int[] vertices, FvsSolution path, SearchContext context) {
+		int forbidMark = g.mark();
 		for (int v : vertices) {
 			// try solution with v
-
+			int mark = g.mark();
 			g.disableVertex(v);
-			Tuple<Set<Integer>, Float> solution2 = bstFVS(g, current + g.vertices[v].weight, 1);
-			if (solution2 != null) {
-				solution2.l.add(v);
-				// update bond
-				bound = Math.min(bound, solution2.r);
+			path.add(v, g.weights[v]);
+			bstFVS(g, current + g.weights[v], path, context);
+			path.removeLast(g.weights[v]);
+			g.undoTo(mark);
+
+			// solutions with v are done
+			g.forbidVertex(v);
+		}
+		g.undoTo(forbidMark);
+	}
+
+	/**
+	 * A node of the bounded search tree as a fork/join task. Branches are forked
+	 * while the node is shallow and large enough and the worker does not already
+	 * have enough queued tasks, otherwise the subtree is searched sequentially.
+	 * Idle workers steal forked branches.
+	 * 
+	 * A task only knows the vertices chosen on its path. Every worker thread owns
+	 * one copy of the graph that is kept in its original state between tasks: a
+	 * task replays its path, searches and undoes all changes with the trail
+	 * before it forks or joins (a joining worker may run other tasks). Solutions
+	 * are offered to the context, so tasks have no result.
+	 */
+	private static class SearchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		// no forking below this depth or under this number of enabled vertices
+		private static final int SPLIT_DEPTH = 24;
+		private static final int SPLIT_SIZE = 16;
+
+		// number of queued tasks a worker may have before it stops forking
+		private static final int SURPLUS = 2;
+
+		private final ThreadLocal<Graph> graphs;
+		private final int[] path;
+		private final int[] forbidden;
+		private final float current;
+		private final SearchContext context;
+
+		/**
+		 * Create a task for a node of the search tree
+		 * 
+		 * @param graphs    the graph copy of every worker
+		 * @param path      the vertices chosen on the path to this node
+		 * @param forbidden the vertices forbidden on the path to this node
+		 * @param current   the weight of the vertices chosen so far
+		 * @param context   the context holding the bound and the best solution
+		 */
+		SearchTask(ThreadLocal<Graph> graphs, int[] path, int[] forbidden, float current, SearchContext context) {
+			this.graphs = graphs;
+			this.path = path;
+			this.forbidden = forbidden;
+			this.current = current;
+			this.context = context;
+		}
+
+		@Override
+		protected void compute() {
+			// see if bound is exceeded or the best solution can not be improved
+			if (context.prunes(current)) {
+				if (context.metrics != null)
+					context.metrics.prune(SolverMetrics.Prune.BOUND);
+				return;
 			}
-			g.enableVertex(v);
-
-			// compare and take best result
-			if (solution == null) {
-				solution = solution2;
-			} else if (solution2 != null) {
-				if (solution2.r < solution.r) {
-					solution = solution2;
-				}
+			if (context.stops(current))
+				return;
+
+			// establish the state of this node
+			Graph g = graphs.get();
+			int mark = g.mark();
+			FvsSolution solution = new FvsSolution(g.verticesCount);
+			for (int v : path) {
+				g.disableVertex(v);
+				solution.add(v, g.weights[v]);
 			}
+			for (int v : forbidden) {
+				g.forbidVertex(v);
+			}
+
+			// run small or deep subtrees sequentially
+			if (path.length >= SPLIT_DEPTH || g.enabledVerticesCount < SPLIT_SIZE
+					|| getSurplusQueuedTaskCount() > SURPLUS) {
+				bstFVS(g, current, solution, context);
+				g.undoTo(mark);
+				return;
+			}
+
+			// see if it is already acyclic
+			if (context.metrics != null)
+				context.metrics.node(path.length);
+			if (g.isAcyclic()) {
+				context.offer(solution, current);
+				g.undoTo(mark);
+				return;
+			}
+
+			// clean graph (remove vertices with deg <= 1)
+			g.cleanUp();
+
+			// a task for every candidate, forbidding the candidates before it
+			int[] vertices = candidates(g, context);
+			List<SearchTask> tasks = new ArrayList<>(vertices.length);
+			for (int i = 0; i < vertices.length; i++) {
+				int v = vertices[i];
+				int[] childPath = Arrays.copyOf(path, path.length + 1);
+				childPath[path.length] = v;
+				int[] childForbidden = Arrays.copyOf(forbidden, forbidden.length + i);
+				System.arraycopy(vertices, 0, childForbidden, forbidden.length, i);
+				tasks.add(new SearchTask(graphs, childPath, childForbidden, current + g.weights[v], context));
+			}
+			g.undoTo(mark);
+			invokeAll(tasks);
 		}
 
-		return solution;
 	}
 
 }
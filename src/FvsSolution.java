@@ -0,0 +1,122 @@
+import java.util.Arrays;
+
+/**
+ * This class represents a solution of the FVS, a set of vertices and their
+ * total weight. The vertices are kept in a growable int array, so a solution
+ * can also be used as the stack of chosen vertices during a search.
+ */
+public class FvsSolution {
+
+	private int[] vertices;
+	private int size;
+	private double weight;
+
+	/**
+	 * Create an empty solution
+	 */
+	public FvsSolution() {
+		this(8);
+	}
+
+	/**
+	 * Create an empty solution
+	 * 
+	 * @param capacity the initial capacity
+	 */
+	public FvsSolution(int capacity) {
+		vertices = new int[Math.max(1, capacity)];
+	}
+
+	/**
+	 * Add a vertex to the solution
+	 * 
+	 * @param v      the vertex
+	 * @param weight the weight of the vertex
+	 */
+	public void add(int v, float weight) {
+		if (size == vertices.length)
+			vertices = Arrays.copyOf(vertices, 2 * size);
+		vertices[size++] = v;
+		this.weight += weight;
+	}
+
+	/**
+	 * Remove the vertex added last (stack usage)
+	 * 
+	 * @param weight the weight of the vertex
+	 */
+	public void removeLast(float weight) {
+		size--;
+		this.weight -= weight;
+	}
+
+	/**
+	 * Remove all vertices
+	 */
+	public void clear() {
+		size = 0;
+		weight = 0.0;
+	}
+
+	/**
+	 * Get a vertex of the solution
+	 * 
+	 * @param i the index
+	 * @return the i-th vertex
+	 */
+	public int get(int i) {
+		return vertices[i];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public double weight() {
+		return weight;
+	}
+
+	/**
+	 * Check whether a vertex is contained (linear scan)
+	 * 
+	 * @param v the vertex
+	 * @return true if v is part of the solution, false else
+	 */
+	public boolean contains(int v) {
+		for (int i = 0; i < size; i++) {
+			if (vertices[i] == v)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Copy the solution (exact size)
+	 * 
+	 * @return the copy
+	 */
+	public FvsSolution copy() {
+		FvsSolution copy = new FvsSolution(size);
+		System.arraycopy(vertices, 0, copy.vertices, 0, size);
+		copy.size = size;
+		copy.weight = weight;
+		return copy;
+	}
+
+	/**
+	 * Get the vertices as an array
+	 * 
+	 * @return the vertices
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(vertices, size);
+	}
+
+	@Override
+	public String toString() {
+		int[] sorted = toArray();
+		Arrays.sort(sorted);
+		return Arrays.toString(sorted);
+	}
+
+}
@@ -1,24 +1,93 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * This class holds the structure of a undirected vertex-weighted graph.
- * Adjacency List Graph structure with enableability of vertices and marking of
- * edges instead of removal.
+ * Compressed sparse row (CSR) graph structure with enableability of vertices
+ * and marking of edges instead of removal. The neighbours of vertex v are
+ * stored in neighbors[offsets[v]] .. neighbors[offsets[v + 1] - 1], every
+ * undirected edge appears twice (once per endpoint) and both entries share the
+ * same edge id. Enabled and marked states are kept in bitsets.
  */
 public class Graph {
 
-	public Vertex[] vertices;
+	// CSR structure (immutable, shared between copies)
+	final int[] offsets;
+	final int[] neighbors;
+	final int[] edgeIds;
+	final int edgesCount;
+
+	public final int verticesCount;
 	public int enabledVerticesCount;
 
+	// vertex state
+	public float[] weights;
+	public float[] originalWeights;
+	public int[] degrees;
+
+	// bitsets
+	private long[] enabledVertices;
+	private long[] markedVertices;
+	private long[] enabledEdges;
+	private long[] markedEdges;
+	private long[] forbiddenVertices;
+
+	// trail of changes (vertex << 2 | operation) and the previous weights
+	private static final int DISABLE = 0, ENABLE = 1, WEIGHT = 2, FORBID = 3;
+	private int[] trail = new int[16];
+	private float[] trailWeights = new float[16];
+	private int trailSize;
+
+	// Zobrist keys of the vertices and of their forbidding (shared by copies, null
+	// if not hashed) and the hash of the enabled and forbidden vertices
+	private long[] hashKeys;
+	private long hash;
+
+	// number of BFS roots used to find a short cycle
+	private static final int SHORTEST_CYCLE_ROOTS = 16;
+
+	// scratch arrays of the kernel and the cycle queries (not shared by copies)
+	private int[] queue;
+	private int[] seen, visited, distance, parent, parentEdge, cycleBuffer, rootBuffer;
+	private int[] localIds;
+	private int stampCounter;
+
+	/**
+	 * Create a graph out of a CSR structure
+	 * 
+	 * @param offsets    the offset array (length n + 1)
+	 * @param neighbors  the neighbor array
+	 * @param edgeIds    the edge id of every entry of the neighbor array
+	 * @param edgesCount the number of undirected edges
+	 * @param weights    the weight of every vertex
+	 */
+	Graph(int[] offsets, int[] neighbors, int[] edgeIds, int edgesCount, float[] weights) {
+		this.offsets = offsets;
+		this.neighbors = neighbors;
+		this.edgeIds = edgeIds;
+		this.edgesCount = edgesCount;
+		this.verticesCount = weights.length;
+		this.weights = weights;
+		this.originalWeights = weights.clone();
+		this.degrees = new int[verticesCount];
+		this.enabledVertices = new long[words(verticesCount)];
+		this.markedVertices = new long[words(verticesCount)];
+		this.enabledEdges = new long[words(edgesCount)];
+		this.markedEdges = new long[words(edgesCount)];
+		this.forbiddenVertices = new long[words(verticesCount)];
+		reset();
+	}
+
 	/**
-	 * Create a graph out of an vertex array
+	 * Check whether a vertex is enabled
 	 * 
-	 * @param vertices The vertex array
+	 * @param n the vertex
+	 * @return true if the vertex is enabled, false else
 	 */
-	public Graph(Vertex[] vertices) {
-		this.vertices = vertices;
-		enabledVerticesCount = vertices.length;
+	public boolean isEnabled(int n) {
+		return get(enabledVertices, n);
 	}
 
 	/**
@@ -27,18 +96,9 @@ public class Graph {
 	 * @param n the vertex to be disabled
 	 */
 	public void disableVertex(int n) {
-		if (vertices[n].enabled) {
-			vertices[n].enabled = false;
-			enabledVerticesCount -= 1;
-			// disable incident edges
-			for (Edge e : vertices[n].edges) {
-				if (e.enabled) {
-					e.enabled = false;
-					int other = e.other(n);
-					vertices[other].degree -= 1;
-				}
-			}
-			vertices[n].degree = 0;
+		if (get(enabledVertices, n)) {
+			record(n, DISABLE, 0.0f);
+			disable(n);
 		}
 	}
 
@@ -48,45 +108,195 @@ public class Graph {
 	 * @param n the vertex to be enabled
 	 */
 	public void enableVertex(int n) {
-		if (!vertices[n].enabled) {
-			vertices[n].enabled = true;
-			enabledVerticesCount += 1;
-			vertices[n].degree = 0;
-			// enable edges if adjacent vertex is also enabled
-			for (Edge e : vertices[n].edges) {
-				int other = e.other(n);
-				if (vertices[other].enabled) {
-					e.enabled = true;
-					vertices[other].degree += 1;
-					vertices[n].degree += 1;
-				}
+		if (!get(enabledVertices, n)) {
+			record(n, ENABLE, 0.0f);
+			enable(n);
+		}
+	}
+
+	/**
+	 * Check whether a vertex is forbidden
+	 * 
+	 * @param n the vertex
+	 * @return true if the vertex must not be deleted, false else
+	 */
+	public boolean isForbidden(int n) {
+		return get(forbiddenVertices, n);
+	}
+
+	/**
+	 * Forbid the deletion of a vertex (a decision of the search, it stays enabled)
+	 * 
+	 * @param n the vertex
+	 */
+	public void forbidVertex(int n) {
+		if (!get(forbiddenVertices, n)) {
+			record(n, FORBID, 0.0f);
+			forbid(n);
+		}
+	}
+
+	/**
+	 * Change the (current) weight of a vertex
+	 * 
+	 * @param n      the vertex
+	 * @param weight the new weight
+	 */
+	public void setWeight(int n, float weight) {
+		record(n, WEIGHT, weights[n]);
+		weights[n] = weight;
+	}
+
+	/**
+	 * Get the current position of the trail. All changes made after this call can
+	 * be undone with {@link #undoTo(int)}.
+	 * 
+	 * @return the trail position
+	 */
+	public int mark() {
+		return trailSize;
+	}
+
+	/**
+	 * Undo all changes (enablings, disablings, forbiddings and weight changes)
+	 * made since the trail had the given position
+	 * 
+	 * @param mark the trail position returned by {@link #mark()}
+	 */
+	public void undoTo(int mark) {
+		while (trailSize > mark) {
+			trailSize--;
+			int n = trail[trailSize] >>> 2;
+			switch (trail[trailSize] & 3) {
+			case DISABLE:
+				enable(n);
+				break;
+			case ENABLE:
+				disable(n);
+				break;
+			case FORBID:
+				forbid(n);
+				break;
+			default:
+				weights[n] = trailWeights[trailSize];
+			}
+		}
+	}
+
+	private void disable(int n) {
+		clear(enabledVertices, n);
+		enabledVerticesCount -= 1;
+		if (hashKeys != null)
+			hash ^= hashKey(n);
+		// disable incident edges
+		for (int i = offsets[n]; i < offsets[n + 1]; i++) {
+			int e = edgeIds[i];
+			if (get(enabledEdges, e)) {
+				clear(enabledEdges, e);
+				degrees[neighbors[i]] -= 1;
+			}
+		}
+		degrees[n] = 0;
+	}
+
+	private void enable(int n) {
+		set(enabledVertices, n);
+		enabledVerticesCount += 1;
+		if (hashKeys != null)
+			hash ^= hashKey(n);
+		degrees[n] = 0;
+		// enable edges if adjacent vertex is also enabled
+		for (int i = offsets[n]; i < offsets[n + 1]; i++) {
+			int other = neighbors[i];
+			if (get(enabledVertices, other)) {
+				set(enabledEdges, edgeIds[i]);
+				degrees[other] += 1;
+				degrees[n] += 1;
 			}
 		}
 	}
 
+	private void forbid(int n) {
+		// toggles, so undoing a forbidding is forbidding again
+		forbiddenVertices[n >>> 6] ^= 1L << n;
+		if (hashKeys != null && get(enabledVertices, n))
+			hash ^= hashKeys[n] ^ hashKeys[verticesCount + n];
+	}
+
+	private void record(int n, int operation, float weight) {
+		if (trailSize == trail.length) {
+			trail = Arrays.copyOf(trail, 2 * trail.length);
+			trailWeights = Arrays.copyOf(trailWeights, 2 * trailWeights.length);
+		}
+		trail[trailSize] = (n << 2) | operation;
+		trailWeights[trailSize++] = weight;
+	}
+
 	/**
 	 * Resets the enablings and markings (hard reset)
 	 */
 	public void reset() {
-		for (int i = 0; i < vertices.length; i++) {
-			Vertex v = vertices[i];
-			v.enabled = true;
-			v.weight = v.originalWeight;
-			for (Edge e : v.edges) {
-				e.enabled = true;
-			}
-			v.resetMarkings();
-			v.degree = v.edges.size();
+		fill(enabledVertices, verticesCount);
+		fill(enabledEdges, edgesCount);
+		System.arraycopy(originalWeights, 0, weights, 0, verticesCount);
+		for (int i = 0; i < verticesCount; i++) {
+			degrees[i] = offsets[i + 1] - offsets[i];
+		}
+		resetMarkings();
+		Arrays.fill(forbiddenVertices, 0L);
+		enabledVerticesCount = verticesCount;
+		trailSize = 0;
+		if (hashKeys != null)
+			hash = hashOf(hashKeys);
+	}
+
+	/**
+	 * Maintain a Zobrist hash of the enabled and forbidden vertices from now on:
+	 * every vertex has a random key for being enabled and one for being enabled
+	 * and forbidden and the hash is the xor of the keys of the enabled vertices,
+	 * so it is updated with one xor per change. A disabled vertex does not count,
+	 * forbidden or not. Copies made afterwards share the keys.
+	 */
+	public void useZobristHash() {
+		if (hashKeys != null)
+			return;
+		SplittableRandom random = new SplittableRandom();
+		hashKeys = new long[2 * verticesCount];
+		for (int i = 0; i < hashKeys.length; i++) {
+			hashKeys[i] = random.nextLong();
 		}
-		enabledVerticesCount = vertices.length;
+		hash = hashOf(hashKeys);
+	}
+
+	/**
+	 * Get the Zobrist hash of the enabled and forbidden vertices, see
+	 * {@link #useZobristHash()}
+	 * 
+	 * @return the hash or 0 if the graph is not hashed
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	private long hashOf(long[] keys) {
+		long h = 0;
+		for (int i = 0; i < verticesCount; i++) {
+			if (get(enabledVertices, i))
+				h ^= get(forbiddenVertices, i) ? keys[verticesCount + i] : keys[i];
+		}
+		return h;
+	}
+
+	private long hashKey(int n) {
+		return get(forbiddenVertices, n) ? hashKeys[verticesCount + n] : hashKeys[n];
 	}
 
 	/**
 	 * Resets the markings of a graph (soft reset)
 	 */
 	public void resetMarkings() {
-		for (Vertex v : vertices)
-			v.resetMarkings();
+		Arrays.fill(markedVertices, 0L);
+		Arrays.fill(markedEdges, 0L);
 	}
 
 	/**
@@ -98,86 +308,83 @@ public class Graph {
 		// List of cycles
 		List<int[]> cycles = new ArrayList<>();
 
-		// List used as a stack
-		List<Integer> stack = new ArrayList<>();
+		// array used as a stack
+		int[] stack = new int[verticesCount];
+		int stackSize = 0;
 
-		// DFS for every connected component
-		boolean foundConnectedComponent;
-		do {
+		// position of the next adjacency entry to look at for every vertex
+		int[] position = new int[verticesCount];
 
-			// Find first enabled unmarked vertex
-			for (int i = 0; i < vertices.length; i++) {
-				if (!vertices[i].enabled)
-					continue;
-				if (vertices[i].marked)
-					continue;
-				stack.add(i);
-				vertices[i].marked = true;
-				break;
-			}
+		// DFS for every connected component
+		for (int root = 0; root < verticesCount; root++) {
 
-			// update whether we found an untouched connected component
-			foundConnectedComponent = stack.size() > 0;
+			// Find enabled unmarked vertex
+			if (!get(enabledVertices, root))
+				continue;
+			if (get(markedVertices, root))
+				continue;
+			stack[stackSize++] = root;
+			position[root] = offsets[root];
+			set(markedVertices, root);
 
 			// as long as stack is not empty
-			while (stack.size() > 0) {
+			while (stackSize > 0) {
 				// pop current stack top
-				int lastIndex = stack.size() - 1;
-				int cur = stack.get(lastIndex);
+				int cur = stack[stackSize - 1];
 
 				// search for unmarked edge incident to popped vertex
-				Edge edge = null;
-				for (Edge e : vertices[cur].edges) {
-					if (!e.enabled)
-						continue;
-					if (e.marked)
-						continue;
-					edge = e;
-					break;
+				int entry = -1;
+				int end = offsets[cur + 1];
+				while (position[cur] < end) {
+					int e = edgeIds[position[cur]];
+					if (get(enabledEdges, e) && !get(markedEdges, e)) {
+						entry = position[cur];
+						break;
+					}
+					position[cur]++;
 				}
 
 				// if there exists unmarked edge
-				if (edge != null) {
+				if (entry != -1) {
 					// mark edge
-					edge.marked = true;
+					set(markedEdges, edgeIds[entry]);
 
 					// get other vertex id
-					int other = edge.other(cur);
+					int other = neighbors[entry];
 
-					if (vertices[other].marked) {
+					if (get(markedVertices, other)) {
 						// if marked
 						// get cycle
 
 						// identify cycle length
 						int c = 1;
 
-						for (int i = stack.size() - 1; i >= 0; i--) {
-							if (stack.get(i) == other)
+						for (int i = stackSize - 1; i >= 0; i--) {
+							if (stack[i] == other)
 								break;
 							c++;
 						}
 
 						// create cycle array
 						int[] cycle = new int[c];
-						for (int i = 0; i < c; i++) {
-							cycle[i] = stack.get(stack.size() - c + i);
-						}
+						System.arraycopy(stack, stackSize - c, cycle, 0, c);
 						cycles.add(cycle);
 					} else {
 						// if not marked
 						// mark
-						vertices[other].marked = true;
+						set(markedVertices, other);
 
 						// add on top of stack
-						stack.add(other);
+						position[other] = offsets[other];
+						stack[stackSize++] = other;
 					}
 				} else {
 					// if there is no umnarked edge pop from stack
-					stack.remove(lastIndex);
+					stackSize--;
 				}
 
 			}
-		} while (foundConnectedComponent);
+		}
 
 		// remove markings
 		resetMarkings();
@@ -191,21 +398,279 @@ public class Graph {
 	 *         is no disjoint set
 	 */
 	public int[] getDisjointSet() {
-		List<int[]> cycles = findCycles();
-
-		// find a cycle that has max 1 vertex with deg > 2
-		for (int[] cycle : cycles) {
-			short degOver2 = 0;
-			for (int v : cycle) {
-				int deg = vertices[v].degree;
-				if (deg > 2) {
-					degOver2++;
-					if (degOver2 > 1) {
-						break;
+		return findSemidisjointCycle();
+	}
+
+	/**
+	 * Check whether the graph is acyclic. Uses a union-find over the enabled
+	 * edges and stops at the first edge closing a cycle.
+	 * 
+	 * @return true if the enabled part of the graph is a forest, false else
+	 */
+	public boolean isAcyclic() {
+		allocateScratch();
+
+		for (int v = 0; v < verticesCount; v++) {
+			parent[v] = v;
+		}
+
+		for (int v = 0; v < verticesCount; v++) {
+			if (!get(enabledVertices, v))
+				continue;
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				int other = neighbors[i];
+				// every edge once (by its endpoint with the smaller index)
+				if (other < v || !get(enabledVertices, other))
+					continue;
+				int x = find(v);
+				int y = find(other);
+				if (x == y)
+					return false;
+				parent[x] = y;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Count the enabled edges
+	 * 
+	 * @return the number of enabled edges
+	 */
+	public int countEnabledEdges() {
+		int sum = 0;
+		for (int v = 0; v < verticesCount; v++) {
+			sum += degrees[v];
+		}
+		return sum / 2;
+	}
+
+	/**
+	 * Count the connected components of the enabled part of the graph
+	 * 
+	 * @return the number of connected components
+	 */
+	public int countComponents() {
+		allocateScratch();
+
+		for (int v = 0; v < verticesCount; v++) {
+			parent[v] = v;
+		}
+
+		int components = enabledVerticesCount;
+		for (int v = 0; v < verticesCount; v++) {
+			if (!get(enabledVertices, v))
+				continue;
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				int other = neighbors[i];
+				if (other < v || !get(enabledVertices, other))
+					continue;
+				int x = find(v);
+				int y = find(other);
+				if (x != y) {
+					parent[x] = y;
+					components--;
+				}
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * Split the enabled part of the graph into its connected components
+	 * 
+	 * @return the vertices of every component
+	 */
+	public List<int[]> components() {
+		allocateScratch();
+		int stamp = nextStamp();
+
+		List<int[]> components = new ArrayList<>();
+		for (int root = 0; root < verticesCount; root++) {
+			if (!get(enabledVertices, root) || seen[root] == stamp)
+				continue;
+
+			// BFS over the component of the root
+			int head = 0;
+			int tail = 0;
+			seen[root] = stamp;
+			queue[tail++] = root;
+			while (head < tail) {
+				int v = queue[head++];
+				for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+					int other = neighbors[i];
+					if (get(enabledVertices, other) && seen[other] != stamp) {
+						seen[other] = stamp;
+						queue[tail++] = other;
 					}
 				}
 			}
-			if (degOver2 <= 1) {
+			components.add(Arrays.copyOf(queue, tail));
+		}
+		return components;
+	}
+
+	/**
+	 * Create the subgraph induced by enabled vertices. Vertex i of the subgraph is
+	 * vertices[i] and has its current weight.
+	 * 
+	 * @param vertices the enabled vertices
+	 * @return the subgraph
+	 */
+	public Graph subgraph(int[] vertices) {
+		if (localIds == null)
+			localIds = new int[verticesCount];
+		float[] subWeights = new float[vertices.length];
+		for (int i = 0; i < vertices.length; i++) {
+			localIds[vertices[i]] = i;
+			subWeights[i] = weights[vertices[i]];
+		}
+
+		// every enabled edge between the vertices once (marked while taken)
+		int[] ends = new int[16];
+		int m = 0;
+		for (int v : vertices) {
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				int e = edgeIds[i];
+				if (!get(enabledEdges, e) || get(markedEdges, e))
+					continue;
+				set(markedEdges, e);
+				if (2 * m + 2 > ends.length)
+					ends = Arrays.copyOf(ends, 2 * ends.length);
+				ends[2 * m] = localIds[v];
+				ends[2 * m + 1] = localIds[neighbors[i]];
+				m++;
+			}
+		}
+		for (int v : vertices) {
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				clear(markedEdges, edgeIds[i]);
+			}
+		}
+
+		return fromEdges(subWeights, ends, m);
+	}
+
+	/**
+	 * Find a short cycle with a BFS. The BFS is started from the vertices with the
+	 * highest degree first (a limited number of them) and a BFS level is only
+	 * expanded while it can still yield a shorter cycle. If these roots do not
+	 * see a cycle, the remaining components are searched for any cycle.
+	 * 
+	 * @return the cycle as an int array of vertex indicies or NULL if the graph is
+	 *         acyclic
+	 */
+	public int[] findShortestCycle() {
+		return findShortCycle(SHORTEST_CYCLE_ROOTS);
+	}
+
+	/**
+	 * Find a short cycle with a BFS from the given number of vertices with the
+	 * highest degree (see {@link #findShortestCycle()})
+	 * 
+	 * @param maxRoots the maximal number of BFS roots
+	 * @return the cycle as an int array of vertex indicies or NULL if the graph is
+	 *         acyclic
+	 */
+	int[] findShortCycle(int maxRoots) {
+		allocateScratch();
+
+		// select roots with the highest degree
+		int roots = 0;
+		for (int v = 0; v < verticesCount; v++) {
+			if (!get(enabledVertices, v) || degrees[v] <= 1)
+				continue;
+			if (roots < maxRoots) {
+				rootBuffer[roots++] = v;
+			} else if (degrees[v] > degrees[rootBuffer[roots - 1]]) {
+				rootBuffer[roots - 1] = v;
+			} else {
+				continue;
+			}
+			// keep roots sorted by descending degree
+			for (int k = roots - 1; k > 0 && degrees[rootBuffer[k]] > degrees[rootBuffer[k - 1]]; k--) {
+				int tmp = rootBuffer[k];
+				rootBuffer[k] = rootBuffer[k - 1];
+				rootBuffer[k - 1] = tmp;
+			}
+		}
+
+		int bestLength = Integer.MAX_VALUE;
+		int explored = nextStamp();
+		for (int k = 0; k < roots && bestLength > 2; k++) {
+			bestLength = bfsCycle(rootBuffer[k], bestLength, explored);
+		}
+
+		// any cycle in a component not seen by the roots
+		for (int v = 0; v < verticesCount && bestLength == Integer.MAX_VALUE; v++) {
+			if (!get(enabledVertices, v) || degrees[v] <= 1 || visited[v] == explored)
+				continue;
+			bestLength = bfsCycle(v, bestLength, explored);
+		}
+
+		if (bestLength == Integer.MAX_VALUE)
+			return null;
+		return Arrays.copyOf(cycleBuffer, bestLength);
+	}
+
+	/**
+	 * Find a semidisjoint cycle, that is a cycle where at most one vertex has a
+	 * degree greater than 2. Such a cycle either only consists of degree 2
+	 * vertices or is a chain of degree 2 vertices starting and ending at the same
+	 * vertex. Every degree 2 vertex is walked at most once.
+	 * 
+	 * @return the cycle as an int array of vertex indicies or NULL if there is no
+	 *         semidisjoint cycle
+	 */
+	public int[] findSemidisjointCycle() {
+		allocateScratch();
+
+		int stamp = nextStamp();
+		for (int v = 0; v < verticesCount; v++) {
+			if (!get(enabledVertices, v) || degrees[v] != 2 || seen[v] == stamp)
+				continue;
+			seen[v] = stamp;
+
+			// the two enabled edges of v
+			int first = nextEntry(v, -1);
+			int second = nextEntry(v, edgeIds[first]);
+
+			// walk forward, collecting at the start of the buffer
+			int forward = 0;
+			cycleBuffer[forward++] = v;
+			int prevEdge = edgeIds[first];
+			int a = neighbors[first];
+			while (a != v && degrees[a] == 2) {
+				seen[a] = stamp;
+				cycleBuffer[forward++] = a;
+				int next = nextEntry(a, prevEdge);
+				prevEdge = edgeIds[next];
+				a = neighbors[next];
+			}
+
+			if (a == v) {
+				// cycle only consisting of degree 2 vertices
+				return Arrays.copyOf(cycleBuffer, forward);
+			}
+
+			// walk backward, collecting at the end of the buffer
+			int backward = 0;
+			prevEdge = edgeIds[second];
+			int b = neighbors[second];
+			while (degrees[b] == 2) {
+				seen[b] = stamp;
+				cycleBuffer[verticesCount - 1 - backward++] = b;
+				int next = nextEntry(b, prevEdge);
+				prevEdge = edgeIds[next];
+				b = neighbors[next];
+			}
+
+			if (a == b && degrees[a] > 2) {
+				// chain starting and ending at a
+				int[] cycle = new int[forward + backward + 1];
+				cycle[0] = a;
+				System.arraycopy(cycleBuffer, verticesCount - backward, cycle, 1, backward);
+				System.arraycopy(cycleBuffer, 0, cycle, 1 + backward, forward);
 				return cycle;
 			}
 		}
@@ -213,92 +678,202 @@ public class Graph {
 	}
 
 	/**
-	 * Cleans up the graph by using a kernel. Repeaditly disables all vertices with
-	 * a degree of 1 or less.
+	 * BFS from a root that stops expanding once no shorter cycle than the given
+	 * length can be found. A shorter cycle is stored in the cycle buffer.
 	 * 
-	 * @return the vertices removed
+	 * @return the length of the shortest cycle known
 	 */
-	public List<Integer> cleanUp() {
-		// list of removed vertices
-		List<Integer> removed = new ArrayList<>();
-		boolean hasChanged;
-		do {
-			hasChanged = false;
-
-			// see if there is a vertex with a degree of 1 or less
-			for (int i = 0; i < vertices.length; i++) {
-				if (!vertices[i].enabled)
+	private int bfsCycle(int root, int bestLength, int explored) {
+		int stamp = nextStamp();
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = root;
+		seen[root] = stamp;
+		distance[root] = 0;
+		parentEdge[root] = -1;
+		parent[root] = -1;
+
+		while (head < tail) {
+			int u = queue[head++];
+			visited[u] = explored;
+
+			// no shorter cycle possible from this level on
+			if (2 * distance[u] + 1 >= bestLength)
+				break;
+
+			for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+				int x = neighbors[i];
+				int e = edgeIds[i];
+				if (e == parentEdge[u] || !get(enabledVertices, x))
 					continue;
-				if (vertices[i].degree <= 1) {
-					// remove from graph
-					disableVertex(i);
-					removed.add(i);
-					hasChanged = true;
+				if (seen[x] != stamp) {
+					seen[x] = stamp;
+					distance[x] = distance[u] + 1;
+					parentEdge[x] = e;
+					parent[x] = u;
+					queue[tail++] = x;
+				} else {
+					// non tree edge closes a cycle (at most this long)
+					if (distance[u] + distance[x] + 1 < bestLength) {
+						bestLength = storeCycle(u, x);
+					}
 				}
 			}
-		} while (hasChanged);
-		return removed;
+		}
+
+		// mark the rest of the component as explored
+		while (head < tail) {
+			visited[queue[head++]] = explored;
+		}
+		return bestLength;
 	}
 
 	/**
-	 * A method to copy graphs (i.e. used for parallelization). It does not copy
-	 * markings, only graph structure and weights
+	 * Store the cycle closed by the non tree edge u-x in the cycle buffer, using
+	 * the BFS parents of both endpoints
 	 * 
-	 * @return the copied graph
+	 * @return the length of the cycle
 	 */
-	public Graph copy() {
-		// list of edges list for each vertex
-		List<List<Edge>> edgesList = new ArrayList<>();
+	private int storeCycle(int u, int x) {
+		// find the lowest common ancestor
+		int a = u;
+		int b = x;
+		while (distance[a] > distance[b])
+			a = parent[a];
+		while (distance[b] > distance[a])
+			b = parent[b];
+		while (a != b) {
+			a = parent[a];
+			b = parent[b];
+		}
+		int length = distance[u] + distance[x] - 2 * distance[a] + 1;
 
-		// establish same connections
-		for (int i = 0; i < vertices.length; i++) {
-			Vertex v = vertices[i];
-			List<Edge> edges = new ArrayList<>();
+		// u side from the front, x side from the back
+		int front = 0;
+		for (int v = u; v != a; v = parent[v]) {
+			cycleBuffer[front++] = v;
+		}
+		cycleBuffer[front] = a;
+		int back = length - 1;
+		for (int v = x; v != a; v = parent[v]) {
+			cycleBuffer[back--] = v;
+		}
+		return length;
+	}
 
-			for (Edge e : v.edges) {
-				int other = e.other(i);
+	/**
+	 * Find the next enabled adjacency entry of a vertex that does not belong to
+	 * the given edge
+	 */
+	private int nextEntry(int v, int prevEdge) {
+		for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+			if (edgeIds[i] != prevEdge && get(enabledVertices, neighbors[i]))
+				return i;
+		}
+		return -1;
+	}
 
-				if (other < i) {
-					Edge newEdge = new Edge(i, other);
-					edges.add(newEdge);
-					edgesList.get(other).add(newEdge);
-				}
-			}
-			edgesList.add(edges);
+	private int find(int v) {
+		while (parent[v] != v) {
+			parent[v] = parent[parent[v]];
+			v = parent[v];
 		}
+		return v;
+	}
 
-		// establish vertices
-		Vertex[] verts = new Vertex[vertices.length];
-		int i = 0;
-		for (List<Edge> edges : edgesList) {
-			verts[i] = new Vertex(edges, vertices[i].weight);
-			i++;
+	private int nextStamp() {
+		if (++stampCounter == Integer.MAX_VALUE) {
+			Arrays.fill(seen, 0);
+			Arrays.fill(visited, 0);
+			stampCounter = 1;
 		}
+		return stampCounter;
+	}
 
-		// create graph object
-		Graph g = new Graph(verts);
+	private void allocateScratch() {
+		if (seen != null)
+			return;
+		seen = new int[verticesCount];
+		visited = new int[verticesCount];
+		distance = new int[verticesCount];
+		parent = new int[verticesCount];
+		parentEdge = new int[verticesCount];
+		cycleBuffer = new int[verticesCount];
+		rootBuffer = new int[SHORTEST_CYCLE_ROOTS];
+		if (queue == null)
+			queue = new int[verticesCount];
+	}
 
-		// establish same "deletions"
-		for (int x = 0; x < verts.length; x++) {
-			if (!vertices[x].enabled) {
-				g.disableVertex(x);
+	/**
+	 * Cleans up the graph by using a kernel. Repeaditly disables all vertices with
+	 * a degree of 1 or less. Uses a worklist so only neighbours whose degree just
+	 * dropped get re-examined. The removed vertices can be enabled again with
+	 * {@link #undoTo(int)}.
+	 * 
+	 * @return the number of vertices removed
+	 */
+	public int cleanUp() {
+		int removed = 0;
+
+		// worklist of vertices with a degree of 1 or less (marked while queued)
+		if (queue == null)
+			queue = new int[verticesCount];
+		int head = 0;
+		int tail = 0;
+
+		for (int i = 0; i < verticesCount; i++) {
+			if (!get(enabledVertices, i))
+				continue;
+			if (degrees[i] <= 1) {
+				set(markedVertices, i);
+				queue[tail++] = i;
 			}
 		}
 
-		return g;
+		while (head < tail) {
+			int v = queue[head++];
+			clear(markedVertices, v);
+
+			// remove from graph
+			disableVertex(v);
+			removed++;
 
+			// see if a neighbour dropped to a degree of 1 or less
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				int other = neighbors[i];
+				if (!get(enabledVertices, other) || get(markedVertices, other))
+					continue;
+				if (degrees[other] <= 1) {
+					set(markedVertices, other);
+					queue[tail++] = other;
+				}
+			}
+		}
+		return removed;
 	}
 
 	/**
-	 * Adds an edge to the graph
+	 * A method to copy graphs (i.e. used for parallelization). It does not copy
+	 * markings, only enablings, forbiddings and weights. The CSR structure itself
+	 * is immutable and therefore shared with the copy.
 	 * 
-	 * @param e the edge to be inserted
+	 * @return the copied graph
 	 */
-	public void addEdge(Edge e) {
-		vertices[e.v].edges.add(e);
-		vertices[e.v].degree += 1;
-		vertices[e.w].edges.add(e);
-		vertices[e.w].degree += 1;
+	public Graph copy() {
+		// create graph object (current weights become the original weights)
+		Graph g = new Graph(offsets, neighbors, edgeIds, edgesCount, weights.clone());
+
+		// establish same "deletions"
+		System.arraycopy(enabledVertices, 0, g.enabledVertices, 0, enabledVertices.length);
+		System.arraycopy(enabledEdges, 0, g.enabledEdges, 0, enabledEdges.length);
+		System.arraycopy(forbiddenVertices, 0, g.forbiddenVertices, 0, forbiddenVertices.length);
+		System.arraycopy(degrees, 0, g.degrees, 0, verticesCount);
+		g.enabledVerticesCount = enabledVerticesCount;
+		g.hashKeys = hashKeys;
+		g.hash = hash;
+
+		return g;
+
 	}
 
 	/**
@@ -311,103 +886,110 @@ public class Graph {
 	 * @return a graph object with these constrains
 	 */
 	public static Graph createGraph(List<Float> weights, List<List<Integer>> connections) {
-		// Create vertex array
-		Vertex[] vertices = new Vertex[weights.size()];
+		int n = weights.size();
 
-		// Create list of list of edges, for each vertex own list
-		List<List<Edge>> edgesList = new ArrayList<>();
-
-		// Fill edges
-		for (int i = 0; i < vertices.length; i++) {
-			List<Edge> edges = new ArrayList<>();
-			List<Integer> connection = connections.get(i);
+		// count degrees (an edge is created by its endpoint with the higher index)
+		int[] offsets = new int[n + 1];
+		int m = 0;
+		for (int i = 0; i < n; i++) {
+			for (Integer other : connections.get(i)) {
+				if (other >= i)
+					continue;
+				offsets[i + 1]++;
+				offsets[other + 1]++;
+				m++;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] += offsets[i];
+		}
 
-			for (Integer other : connection) {
+		// fill neighbors, keeping the insertion order of the adjacency lists
+		int[] neighbors = new int[2 * m];
+		int[] edgeIds = new int[2 * m];
+		int[] fill = new int[n];
+		System.arraycopy(offsets, 0, fill, 0, n);
+		int e = 0;
+		for (int i = 0; i < n; i++) {
+			for (Integer other : connections.get(i)) {
 				if (other >= i)
 					continue;
-				Edge e = new Edge(i, other);
-				edges.add(e);
-				// constant time in ArrayList
-				edgesList.get(other).add(e);
+				neighbors[fill[i]] = other;
+				edgeIds[fill[i]++] = e;
+				neighbors[fill[other]] = i;
+				edgeIds[fill[other]++] = e;
+				e++;
 			}
-			edgesList.add(edges);
 		}
 
-		// Create vertex objects
-		for (int i = 0; i < vertices.length; i++) {
-			vertices[i] = new Vertex(edgesList.get(i), weights.get(i));
+		// weights
+		float[] w = new float[n];
+		for (int i = 0; i < n; i++) {
+			w[i] = weights.get(i);
 		}
 
-		return new Graph(vertices);
+		return new Graph(offsets, neighbors, edgeIds, m, w);
 	}
 
-}
-
-/**
- * This class represents a vertex of the graph.
- */
-class Vertex {
-
-	// standard values
-	float weight = 1.0f;
-	float originalWeight = 1.0f;
-
-	List<Edge> edges;
+	/**
+	 * Creates a graph out of a weight array and an edge list. Parallel edges are
+	 * kept (they form a cycle of length 2), self loops are not allowed.
+	 * 
+	 * @param weights the weight of every vertex
+	 * @param ends    the endpoints of the edges, edge e connects ends[2e] and
+	 *                ends[2e + 1]
+	 * @param m       the number of edges
+	 * @return a graph object with these constrains
+	 */
+	static Graph fromEdges(float[] weights, int[] ends, int m) {
+		int n = weights.length;
 
-	boolean marked;
-	boolean enabled = true;
+		// count degrees
+		int[] offsets = new int[n + 1];
+		for (int i = 0; i < 2 * m; i++) {
+			offsets[ends[i] + 1]++;
+		}
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] += offsets[i];
+		}
 
-	int degree;
+		// fill neighbors in order of the edge ids
+		int[] neighbors = new int[2 * m];
+		int[] edgeIds = new int[2 * m];
+		int[] fill = new int[n];
+		System.arraycopy(offsets, 0, fill, 0, n);
+		for (int e = 0; e < m; e++) {
+			int v = ends[2 * e];
+			int w = ends[2 * e + 1];
+			neighbors[fill[v]] = w;
+			edgeIds[fill[v]++] = e;
+			neighbors[fill[w]] = v;
+			edgeIds[fill[w]++] = e;
+		}
 
-	public Vertex(List<Edge> edges) {
-		this.edges = edges;
-		degree = edges.size();
+		return new Graph(offsets, neighbors, edgeIds, m, weights);
 	}
 
-	public Vertex(List<Edge> edges, float weight) {
-		this(edges);
-		this.weight = weight;
-		originalWeight = weight;
+	private static int words(int bits) {
+		return (bits + 63) >>> 6;
 	}
 
-	/**
-	 * Reset vertex marking and incident edges markings
-	 */
-	public void resetMarkings() {
-		marked = false;
-		for (Edge e : edges)
-			e.marked = false;
+	private static boolean get(long[] bits, int i) {
+		return (bits[i >>> 6] & (1L << i)) != 0;
 	}
 
-}
-
-/**
- * This class represents an edge of the graph.
- */
-class Edge {
-
-	int v, w;
-
-	boolean marked;
-	boolean enabled = true;
-
-	public Edge(int v, int w) {
-		this.v = v;
-		this.w = w;
+	private static void set(long[] bits, int i) {
+		bits[i >>> 6] |= 1L << i;
 	}
 
-	public int other(int x) {
-		if (v == x)
-			return w;
-		return v;
+	private static void clear(long[] bits, int i) {
+		bits[i >>> 6] &= ~(1L << i);
 	}
 
-	@Override
-	public boolean equals(Object obj) {
-		if (!(obj instanceof Edge))
-			return false;
-		Edge e = (Edge) obj;
-		return (e.v == v && e.w == w) || (e.v == w && e.w == v);
+	private static void fill(long[] bits, int count) {
+		Arrays.fill(bits, -1L);
+		if ((count & 63) != 0)
+			bits[bits.length - 1] = (1L << count) - 1;
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,558 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A generator of seeded synthetic graphs. All generators run in time linear in
+ * the size of the graph, so graphs with millions of vertices can be created. Graphs are built in memory and can be written as .graph or
+ * .fvsb files.
+ * 
+ * Run with "java GraphGenerator &lt;OutputFile&gt; &lt;family&gt;
+ * &lt;parameters&gt; [--seed &lt;s&gt;] [--weights &lt;distribution&gt;]
+ * [--max-weight &lt;w&gt;]" where family and parameters are one of
+ * <ul>
+ * <li>er &lt;n&gt; &lt;p&gt; (Erdos-Renyi G(n, p))</li>
+ * <li>regular &lt;n&gt; &lt;d&gt; (random d-regular)</li>
+ * <li>grid &lt;rows&gt; &lt;columns&gt;, torus &lt;rows&gt; &lt;columns&gt; and
+ * planar &lt;rows&gt; &lt;columns&gt; (triangulated grid)</li>
+ * <li>planted &lt;n&gt; &lt;k&gt; &lt;extra&gt; (known optimum of k vertices,
+ * printed to the console)</li>
+ * <li>powerlaw &lt;n&gt; &lt;m0&gt; (preferential attachment)</li>
+ * <li>tree &lt;n&gt; &lt;k&gt; (random tree with k extra edges)</li>
+ * </ul>
+ */
+public class GraphGenerator {
+
+	/**
+	 * The distributions of the vertex weights
+	 */
+	public enum Weights {
+		// every vertex has weight 1
+		UNIT,
+		// integers between 1 and the max weight
+		INTEGER,
+		// floats between 1 and the max weight
+		UNIFORM,
+		// the degree of the vertex
+		DEGREE
+	}
+
+	private final Random random;
+	private final Weights distribution;
+	private final int maxWeight;
+
+	// the edges of the graph in construction, edge e connects ends[2e] and
+	// ends[2e + 1]
+	private int[] ends;
+	private int m;
+
+	// the optimal solution of the last planted graph
+	private FvsSolution planted;
+
+	/**
+	 * Create a generator
+	 * 
+	 * @param seed         the seed of the random numbers
+	 * @param distribution the distribution of the vertex weights
+	 * @param maxWeight    the max weight of the INTEGER and UNIFORM distribution
+	 */
+	public GraphGenerator(long seed, Weights distribution, int maxWeight) {
+		this.random = new Random(seed);
+		this.distribution = distribution;
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * Generates a graph file
+	 * 
+	 * @param args the output file, the family, its parameters and the options
+	 */
+	public static void main(String[] args) {
+		if (args.length < 3) {
+			System.err.println("usage: \"java GraphGenerator <OutputFile> <family> <parameters> [--seed <s>] "
+					+ "[--weights unit|integer|uniform|degree] [--max-weight <w>]\"");
+			return;
+		}
+
+		try {
+			// split parameters and options
+			int count = 2;
+			while (count < args.length && !args[count].startsWith("--")) {
+				count++;
+			}
+			long seed = 0;
+			Weights weights = Weights.INTEGER;
+			int maxWeight = 10;
+			for (int i = count; i + 1 < args.length; i += 2) {
+				switch (args[i]) {
+				case "--seed":
+					seed = Long.parseLong(args[i + 1]);
+					break;
+				case "--weights":
+					weights = Weights.valueOf(args[i + 1].toUpperCase());
+					break;
+				case "--max-weight":
+					maxWeight = Integer.parseInt(args[i + 1]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option " + args[i]);
+				}
+			}
+
+			GraphGenerator generator = new GraphGenerator(seed, weights, maxWeight);
+			String[] p = Arrays.copyOfRange(args, 2, count);
+			Graph g;
+			switch (args[1]) {
+			case "er":
+				g = generator.erdosRenyi(Integer.parseInt(p[0]), Double.parseDouble(p[1]));
+				break;
+			case "regular":
+				g = generator.regular(Integer.parseInt(p[0]), Integer.parseInt(p[1]));
+				break;
+			case "grid":
+			case "torus":
+				g = generator.grid(Integer.parseInt(p[0]), Integer.parseInt(p[1]), args[1].equals("torus"));
+				break;
+			case "planar":
+				g = generator.triangulatedGrid(Integer.parseInt(p[0]), Integer.parseInt(p[1]));
+				break;
+			case "planted":
+				g = generator.planted(Integer.parseInt(p[0]), Integer.parseInt(p[1]),
+						Integer.parseInt(p[2]));
+				System.out.println("Optimal weight: " + (float) generator.getPlanted().weight());
+				System.out.println("Optimal set: " + generator.getPlanted());
+				break;
+			case "powerlaw":
+				g = generator.powerLaw(Integer.parseInt(p[0]), Integer.parseInt(p[1]));
+				break;
+			case "tree":
+				g = generator.treePlus(Integer.parseInt(p[0]), Integer.parseInt(p[1]));
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown family " + args[1]);
+			}
+
+			File file = new File(args[0]);
+			if (file.getName().endsWith(BinaryGraphFormat.EXTENSION)) {
+				BinaryGraphFormat.write(g, file);
+			} else {
+				write(g, file);
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println("Invalid arguments: " + e.getMessage());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Write the original state of a graph as .graph file (every edge is listed
+	 * by both endpoints)
+	 * 
+	 * @param g    the graph
+	 * @param file the file
+	 * @throws IOException if the file can not be written
+	 */
+	public static void write(Graph g, File file) throws IOException {
+		try (Writer writer = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+			writer.write(g.verticesCount + "\n");
+			for (float weight : g.originalWeights) {
+				writer.write(weight + "\n");
+			}
+			for (int v = 0; v < g.verticesCount; v++) {
+				for (int i = g.offsets[v]; i < g.offsets[v + 1]; i++) {
+					writer.write(v + " " + g.neighbors[i] + "\n");
+				}
+			}
+		}
+	}
+
+	/**
+	 * An Erdos-Renyi graph G(n, p), every edge exists with probability p. The
+	 * gaps between edges are drawn from the geometric distribution, so the time is
+	 * linear in n + m.
+	 * 
+	 * @param n the number of vertices
+	 * @param p the edge probability
+	 * @return the graph
+	 */
+	public Graph erdosRenyi(int n, double p) {
+		start(n);
+		if (p >= 1.0) {
+			for (int v = 1; v < n; v++) {
+				for (int w = 0; w < v; w++) {
+					edge(v, w);
+				}
+			}
+		} else if (p > 0.0) {
+			double log = Math.log(1.0 - p);
+			long v = 1;
+			long w = -1;
+			while (v < n) {
+				w += 1 + (long) Math.floor(Math.log(1.0 - random.nextDouble()) / log);
+				while (w >= v && v < n) {
+					w -= v;
+					v++;
+				}
+				if (v < n)
+					edge((int) v, (int) w);
+			}
+		}
+		return build(n);
+	}
+
+	/**
+	 * A random d-regular graph (configuration model). Self loops and parallel
+	 * edges of the random pairing are removed by switching them with random
+	 * edges.
+	 * 
+	 * @param n the number of vertices
+	 * @param d the degree
+	 * @return the graph
+	 */
+	public Graph regular(int n, int d) {
+		if (d >= n || ((long) n * d) % 2 != 0)
+			throw new IllegalArgumentException("No " + d + "-regular graph with " + n + " vertices");
+
+		// random pairing of the stubs
+		start(n);
+		int[] stubs = new int[n * d];
+		for (int i = 0; i < stubs.length; i++) {
+			stubs[i] = i / d;
+		}
+		shuffle(stubs);
+		ends = stubs;
+		m = stubs.length / 2;
+
+		// switch bad edges until the graph is simple
+		int[] slots = new int[n * d];
+		int[] fill = new int[n];
+		boolean[] bad = new boolean[m];
+		int[] badEdges = new int[m];
+		for (int round = 0;; round++) {
+			if (round == 1000)
+				throw new IllegalStateException("Random pairing did not converge");
+
+			// adjacency (edge ids) of every vertex
+			Arrays.fill(fill, 0);
+			for (int e = 0; e < m; e++) {
+				int v = ends[2 * e];
+				int w = ends[2 * e + 1];
+				slots[v * d + fill[v]++] = e;
+				slots[w * d + fill[w]++] = e;
+			}
+
+			// self loops and all but one edge of parallel edges are bad
+			int badCount = 0;
+			for (int v = 0; v < n; v++) {
+				for (int i = 0; i < d; i++) {
+					int e = slots[v * d + i];
+					int x = ends[2 * e] ^ ends[2 * e + 1] ^ v;
+					boolean isBad = x == v;
+					for (int j = 0; j < i && !isBad; j++) {
+						int f = slots[v * d + j];
+						isBad = f != e && (ends[2 * f] ^ ends[2 * f + 1] ^ v) == x;
+					}
+					if (isBad && !bad[e]) {
+						bad[e] = true;
+						badEdges[badCount++] = e;
+					}
+				}
+			}
+			if (badCount == 0)
+				break;
+
+			// switch (a, b), (c, x) to (a, x), (c, b)
+			for (int k = 0; k < badCount; k++) {
+				int e = badEdges[k];
+				int f = random.nextInt(m);
+				int b = ends[2 * e + 1];
+				ends[2 * e + 1] = ends[2 * f + 1];
+				ends[2 * f + 1] = b;
+				bad[e] = false;
+			}
+		}
+		return build(n);
+	}
+
+	/**
+	 * A grid graph, a torus additionally connects the first and last row and
+	 * column
+	 * 
+	 * @param rows    the number of rows (at least 3 for a torus)
+	 * @param columns the number of columns (at least 3 for a torus)
+	 * @param torus   whether the grid wraps around
+	 * @return the graph
+	 */
+	public Graph grid(int rows, int columns, boolean torus) {
+		if (torus && (rows < 3 || columns < 3))
+			throw new IllegalArgumentException("A torus needs at least 3 rows and columns");
+		int n = rows * columns;
+		start(n);
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < columns; c++) {
+				int v = r * columns + c;
+				if (c + 1 < columns || torus)
+					edge(v, r * columns + (c + 1) % columns);
+				if (r + 1 < rows || torus)
+					edge(v, ((r + 1) % rows) * columns + c);
+			}
+		}
+		return build(n);
+	}
+
+	/**
+	 * A planar grid graph with a diagonal in every cell
+	 * 
+	 * @param rows    the number of rows
+	 * @param columns the number of columns
+	 * @return the graph
+	 */
+	public Graph triangulatedGrid(int rows, int columns) {
+		int n = rows * columns;
+		start(n);
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < columns; c++) {
+				int v = r * columns + c;
+				if (c + 1 < columns)
+					edge(v, v + 1);
+				if (r + 1 < rows)
+					edge(v, v + columns);
+				if (c + 1 < columns && r + 1 < rows)
+					edge(v, v + columns + 1);
+			}
+		}
+		return build(n);
+	}
+
+	/**
+	 * A graph with a planted optimal FVS of k hubs. The other vertices form a
+	 * tree consisting of k subtrees. Every hub closes a cycle in its own subtree
+	 * and has extra edges to random vertices. The k cycles are vertex disjoint and
+	 * the weight of every hub is lowered to the minimum of its cycle, so every FVS
+	 * weighs at least the weight of the hubs, and removing the hubs leaves the
+	 * tree. Vertex ids are shuffled. The optimal solution is returned by
+	 * {@link #getPlanted()}.
+	 * 
+	 * @param n     the number of vertices (at least 4k)
+	 * @param k     the number of hubs
+	 * @param extra the number of extra edges of every hub
+	 * @return the graph
+	 */
+	public Graph planted(int n, int k, int extra) {
+		if (k < 1 || n < 4 * k)
+			throw new IllegalArgumentException("A planted graph with " + k + " hubs needs at least " + 4 * k
+					+ " vertices");
+		start(n);
+		int t = n - k;
+
+		// k random subtrees on blocks of the tree vertices, linked to a tree
+		int[] parent = new int[t];
+		int[] depth = new int[t];
+		for (int i = 0; i < k; i++) {
+			int first = (int) ((long) t * i / k);
+			int last = (int) ((long) t * (i + 1) / k);
+			parent[first] = -1;
+			for (int v = first + 1; v < last; v++) {
+				parent[v] = first + random.nextInt(v - first);
+				depth[v] = depth[parent[v]] + 1;
+				edge(v, parent[v]);
+			}
+			if (i > 0)
+				edge(first + random.nextInt(last - first), random.nextInt(first));
+		}
+
+		// hubs
+		int[] cycleStart = new int[k];
+		int[] cycleEnd = new int[k];
+		for (int i = 0; i < k; i++) {
+			int hub = t + i;
+			int first = (int) ((long) t * i / k);
+			int last = (int) ((long) t * (i + 1) / k);
+			int a = first + random.nextInt(last - first);
+			int b;
+			do {
+				b = first + random.nextInt(last - first);
+			} while (b == a);
+			cycleStart[i] = a;
+			cycleEnd[i] = b;
+			edge(hub, a);
+			edge(hub, b);
+			for (int j = 0; j < extra; j++) {
+				edge(hub, random.nextInt(t));
+			}
+		}
+
+		// hub weights are the minimum of their cycle
+		float[] weights = weights(n);
+		for (int i = 0; i < k; i++) {
+			float min = weights[t + i];
+			int a = cycleStart[i];
+			int b = cycleEnd[i];
+			while (a != b) {
+				if (depth[a] < depth[b]) {
+					int swap = a;
+					a = b;
+					b = swap;
+				}
+				min = Math.min(min, weights[a]);
+				a = parent[a];
+			}
+			weights[t + i] = Math.min(min, weights[a]);
+		}
+
+		// shuffle vertex ids
+		int[] permutation = new int[n];
+		for (int v = 0; v < n; v++) {
+			permutation[v] = v;
+		}
+		shuffle(permutation);
+		float[] shuffled = new float[n];
+		for (int v = 0; v < n; v++) {
+			shuffled[permutation[v]] = weights[v];
+		}
+		for (int i = 0; i < 2 * m; i++) {
+			ends[i] = permutation[ends[i]];
+		}
+		planted = new FvsSolution(k);
+		for (int i = 0; i < k; i++) {
+			planted.add(permutation[t + i], weights[t + i]);
+		}
+
+		return Graph.fromEdges(shuffled, ends, m);
+	}
+
+	/**
+	 * Get the optimal solution of the last planted graph
+	 * 
+	 * @return the solution or null if no planted graph was generated
+	 */
+	public FvsSolution getPlanted() {
+		return planted;
+	}
+
+	/**
+	 * A power-law graph built by preferential attachment (Barabasi-Albert). It
+	 * starts with a clique of m0 + 1 vertices, every further vertex is connected
+	 * to m0 different vertices chosen with probability proportional to their
+	 * degree.
+	 * 
+	 * @param n  the number of vertices
+	 * @param m0 the edges of every new vertex
+	 * @return the graph
+	 */
+	public Graph powerLaw(int n, int m0) {
+		if (m0 < 1 || n <= m0)
+			throw new IllegalArgumentException("A power-law graph needs more than m0 >= 1 vertices");
+		start(n);
+		for (int v = 1; v <= m0; v++) {
+			for (int w = 0; w < v; w++) {
+				edge(v, w);
+			}
+		}
+		int[] targets = new int[m0];
+		for (int v = m0 + 1; v < n; v++) {
+			// endpoints of existing edges are chosen proportional to the degree
+			int edges = m;
+			for (int j = 0; j < m0; j++) {
+				int w;
+				boolean duplicate;
+				do {
+					w = ends[random.nextInt(2 * edges)];
+					duplicate = false;
+					for (int i = 0; i < j; i++) {
+						duplicate |= targets[i] == w;
+					}
+				} while (duplicate);
+				targets[j] = w;
+				edge(v, w);
+			}
+		}
+		return build(n);
+	}
+
+	/**
+	 * A random recursive tree with k extra edges between random vertices (extra
+	 * edges may be parallel to existing edges, i.e. a cycle of length 2)
+	 * 
+	 * @param n the number of vertices
+	 * @param k the number of extra edges
+	 * @return the graph
+	 */
+	public Graph treePlus(int n, int k) {
+		if (n < 2 && k > 0)
+			throw new IllegalArgumentException("Extra edges need at least 2 vertices");
+		start(n);
+		for (int v = 1; v < n; v++) {
+			edge(v, random.nextInt(v));
+		}
+		for (int j = 0; j < k; j++) {
+			int v = random.nextInt(n);
+			int w;
+			do {
+				w = random.nextInt(n);
+			} while (w == v);
+			edge(v, w);
+		}
+		return build(n);
+	}
+
+	private void start(int n) {
+		ends = new int[Math.max(16, 4 * n)];
+		m = 0;
+	}
+
+	private void edge(int v, int w) {
+		if (2 * m + 2 > ends.length)
+			ends = Arrays.copyOf(ends, (int) Math.min(Integer.MAX_VALUE - 8, 2L * ends.length));
+		ends[2 * m] = v;
+		ends[2 * m + 1] = w;
+		m++;
+	}
+
+	private Graph build(int n) {
+		return Graph.fromEdges(weights(n), ends, m);
+	}
+
+	/**
+	 * Draw the weights of the vertices of the graph in construction
+	 */
+	private float[] weights(int n) {
+		float[] weights = new float[n];
+		for (int v = 0; v < n; v++) {
+			switch (distribution) {
+			case UNIT:
+				weights[v] = 1.0f;
+				break;
+			case INTEGER:
+				weights[v] = 1 + random.nextInt(maxWeight);
+				break;
+			case UNIFORM:
+				weights[v] = 1.0f + random.nextFloat() * (maxWeight - 1);
+				break;
+			case DEGREE:
+				break;
+			}
+		}
+		if (distribution == Weights.DEGREE) {
+			for (int i = 0; i < 2 * m; i++) {
+				weights[ends[i]]++;
+			}
+		}
+		return weights;
+	}
+
+	private void shuffle(int[] array) {
+		for (int i = array.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = array[i];
+			array[i] = array[j];
+			array[j] = swap;
+		}
+	}
+
+}
@@ -0,0 +1,246 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class loads .graph files (vertex count, one weight per line, one edge
+ * "v w" per line). The file is memory mapped and the numbers are parsed
+ * directly from the mapped bytes. The edges are read in two passes: the first
+ * pass counts them, the second pass writes them into the edge array, which is
+ * turned into the adjacency arrays of the graph.
+ * 
+ * As with {@link Graph#createGraph(java.util.List, java.util.List)} an edge is
+ * created by the line "v w" with w < v, so every undirected edge is expected to
+ * be listed in both directions. The edge ids are the same as with
+ * createGraph.
+ */
+public class GraphLoader {
+
+	// the file is mapped in windows of this size (the mapping size is limited)
+	private static final long WINDOW = 1L << 30;
+
+	// longest accepted number token
+	private static final int MAX_TOKEN = 64;
+
+	// floats with a smaller mantissa and up to 10 decimals are parsed exactly
+	// with a single division, other floats with Float.parseFloat
+	private static final long MAX_MANTISSA = 1L << 24;
+	private static final float[] POWERS = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+
+	private final FileChannel channel;
+	private final long size;
+
+	// the current window and the read position in the file
+	private MappedByteBuffer buffer;
+	private long bufferStart, bufferEnd;
+	private long position;
+
+	// scratch buffer for float tokens
+	private final byte[] token = new byte[MAX_TOKEN];
+
+	private GraphLoader(FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.size = channel.size();
+	}
+
+	/**
+	 * Load a graph file, binary graph files ({@link BinaryGraphFormat}) are
+	 * recognized by their extension
+	 * 
+	 * @param file the .graph or .fvsb file
+	 * @return the graph
+	 * @throws IOException if the file can not be read or is malformed
+	 */
+	public static Graph load(File file) throws IOException {
+		if (file.getName().endsWith(BinaryGraphFormat.EXTENSION))
+			return BinaryGraphFormat.read(file);
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return new GraphLoader(channel).read();
+		}
+	}
+
+	private Graph read() throws IOException {
+		// header and weights
+		int n = readInt(true);
+		float[] weights = new float[n];
+		for (int i = 0; i < n; i++) {
+			weights[i] = readFloat();
+		}
+
+		// first pass: count the edges created by every vertex
+		long edgesStart = position;
+		int[] rows = new int[n + 1];
+		int m = 0;
+		while (nextLine()) {
+			int v = readVertex(n);
+			int w = readInt(false);
+			if (w < v) {
+				rows[v + 1]++;
+				m++;
+			}
+			skipLine();
+		}
+		for (int i = 0; i < n; i++) {
+			rows[i + 1] += rows[i];
+		}
+
+		// second pass: edges ordered by the creating vertex, then by file order
+		int[] ends = new int[2 * m];
+		position = edgesStart;
+		while (nextLine()) {
+			int v = readVertex(n);
+			int w = readInt(false);
+			if (w < v) {
+				int e = rows[v]++;
+				ends[2 * e] = v;
+				ends[2 * e + 1] = w;
+			}
+			skipLine();
+		}
+
+		return Graph.fromEdges(weights, ends, m);
+	}
+
+	/**
+	 * Get the byte at the read position, maps the next window if needed
+	 * 
+	 * @return the byte or -1 at the end of the file
+	 */
+	private int peek() throws IOException {
+		if (position >= bufferStart && position < bufferEnd)
+			return buffer.get((int) (position - bufferStart)) & 0xff;
+		if (position >= size)
+			return -1;
+		bufferStart = position;
+		bufferEnd = position + Math.min(WINDOW, size - position);
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, bufferStart, bufferEnd - bufferStart);
+		return buffer.get(0) & 0xff;
+	}
+
+	private static boolean isBlank(int c) {
+		return c == ' ' || c == '\t' || c == '\r';
+	}
+
+	private static boolean isWhitespace(int c) {
+		return isBlank(c) || c == '\n';
+	}
+
+	/**
+	 * Skip to the next non empty line
+	 * 
+	 * @return false if the end of the file is reached, true else
+	 */
+	private boolean nextLine() throws IOException {
+		int c;
+		while ((c = peek()) != -1 && isWhitespace(c)) {
+			position++;
+		}
+		return c != -1;
+	}
+
+	private void skipLine() throws IOException {
+		int c;
+		while ((c = peek()) != -1 && c != '\n') {
+			position++;
+		}
+	}
+
+	/**
+	 * Read a non negative integer
+	 * 
+	 * @param newlines whether line breaks before the number are skipped
+	 * @return the integer
+	 */
+	private int readInt(boolean newlines) throws IOException {
+		int c;
+		while ((c = peek()) != -1 && (newlines ? isWhitespace(c) : isBlank(c))) {
+			position++;
+		}
+
+		long value = 0;
+		int digits = 0;
+		while ((c = peek()) >= '0' && c <= '9') {
+			value = 10 * value + (c - '0');
+			if (value > Integer.MAX_VALUE)
+				throw malformed("integer too large");
+			digits++;
+			position++;
+		}
+		if (digits == 0 || (c != -1 && !isWhitespace(c)))
+			throw malformed("integer expected");
+		return (int) value;
+	}
+
+	private int readVertex(int n) throws IOException {
+		int v = readInt(false);
+		if (v >= n)
+			throw malformed("vertex " + v + " out of range");
+		return v;
+	}
+
+	/**
+	 * Read a float, line breaks before the number are skipped
+	 * 
+	 * @return the float
+	 */
+	private float readFloat() throws IOException {
+		int c;
+		while ((c = peek()) != -1 && isWhitespace(c)) {
+			position++;
+		}
+
+		// copy the token
+		int length = 0;
+		while ((c = peek()) != -1 && !isWhitespace(c)) {
+			if (length == MAX_TOKEN)
+				throw malformed("number too long");
+			token[length++] = (byte) c;
+			position++;
+		}
+		if (length == 0)
+			throw malformed("float expected");
+
+		// fast path: [-]digits[.digits]
+		int i = 0;
+		boolean negative = token[0] == '-';
+		if (negative || token[0] == '+')
+			i++;
+		long mantissa = 0;
+		int digits = 0;
+		int decimals = -1;
+		for (; i < length; i++) {
+			int b = token[i];
+			if (b >= '0' && b <= '9') {
+				mantissa = 10 * mantissa + (b - '0');
+				digits++;
+				if (decimals >= 0)
+					decimals++;
+				if (mantissa > MAX_MANTISSA)
+					break;
+			} else if (b == '.' && decimals < 0) {
+				decimals = 0;
+			} else {
+				break;
+			}
+		}
+		if (i == length && digits > 0 && decimals < POWERS.length) {
+			float value = decimals > 0 ? mantissa / POWERS[decimals] : mantissa;
+			return negative ? -value : value;
+		}
+
+		try {
+			return Float.parseFloat(new String(token, 0, length, StandardCharsets.US_ASCII));
+		} catch (NumberFormatException e) {
+			throw malformed("float expected");
+		}
+	}
+
+	private IOException malformed(String message) {
+		return new IOException("Malformed graph file at byte " + position + ": " + message);
+	}
+
+}
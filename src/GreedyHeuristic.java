@@ -0,0 +1,82 @@
+/**
+ * A greedy heuristic driven by an indexed heap. The vertex with the smallest
+ * weight / (degree - 1) is deleted until the graph is empty; after every
+ * deletion the vertices whose degree dropped to 1 or less are removed as well
+ * and only the keys of the touched neighbours are updated. Every vertex and
+ * edge is handled a constant number of times, so it runs in O(m log n).
+ */
+class GreedyHeuristic {
+
+	private GreedyHeuristic() {
+	}
+
+	/**
+	 * Find a FVS of the enabled part of a graph. The graph is left unchanged. If
+	 * the thread is interrupted, all vertices left on cycles are taken at once.
+	 * 
+	 * @param g the graph
+	 * @return the FVS
+	 */
+	public static FvsSolution solve(Graph g) {
+		FvsSolution solution = new FvsSolution();
+		int mark = g.mark();
+
+		IndexedHeap heap = new IndexedHeap(g.verticesCount);
+		int[] queue = new int[g.verticesCount];
+		int tail = 0;
+
+		for (int v = 0; v < g.verticesCount; v++) {
+			if (!g.isEnabled(v))
+				continue;
+			if (g.degrees[v] <= 1)
+				queue[tail++] = v;
+			else
+				heap.put(v, key(g, v));
+		}
+		// vertices of degree 1 or less are queued and not in the heap
+		tail = removeQueued(g, heap, queue, tail);
+
+		while (!heap.isEmpty()) {
+			int v = heap.poll();
+			solution.add(v, g.weights[v]);
+			if (Thread.currentThread().isInterrupted())
+				continue;
+			queue[tail++] = v;
+			tail = removeQueued(g, heap, queue, tail);
+		}
+
+		g.undoTo(mark);
+		return solution;
+	}
+
+	/**
+	 * Disable the queued vertices and every vertex whose degree drops to 1 or less
+	 * on the way, the keys of the other neighbours are updated
+	 * 
+	 * @return the new (empty) length of the queue
+	 */
+	private static int removeQueued(Graph g, IndexedHeap heap, int[] queue, int tail) {
+		int head = 0;
+		while (head < tail) {
+			int v = queue[head++];
+			g.disableVertex(v);
+			for (int i = g.offsets[v]; i < g.offsets[v + 1]; i++) {
+				int other = g.neighbors[i];
+				if (!heap.contains(other))
+					continue;
+				if (g.degrees[other] <= 1) {
+					heap.remove(other);
+					queue[tail++] = other;
+				} else {
+					heap.put(other, key(g, other));
+				}
+			}
+		}
+		return 0;
+	}
+
+	private static float key(Graph g, int v) {
+		return g.weights[v] / (g.degrees[v] - 1);
+	}
+
+}
@@ -0,0 +1,127 @@
+import java.util.Arrays;
+
+/**
+ * A binary min heap of the vertices 0 .. n - 1 keyed by floats. The position
+ * of every vertex in the heap is indexed, so the key of a vertex can be changed
+ * and a vertex can be removed in O(log n).
+ */
+class IndexedHeap {
+
+	// the vertices in heap order and the position of every vertex (-1 if absent)
+	private final int[] heap;
+	private final int[] position;
+	private final float[] keys;
+	private int size;
+
+	/**
+	 * Create an empty heap
+	 * 
+	 * @param capacity the number of vertices
+	 */
+	public IndexedHeap(int capacity) {
+		heap = new int[capacity];
+		position = new int[capacity];
+		keys = new float[capacity];
+		Arrays.fill(position, -1);
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean contains(int v) {
+		return position[v] >= 0;
+	}
+
+	/**
+	 * Insert a vertex or change its key
+	 * 
+	 * @param v   the vertex
+	 * @param key the key
+	 */
+	public void put(int v, float key) {
+		if (position[v] < 0) {
+			keys[v] = key;
+			heap[size] = v;
+			position[v] = size;
+			siftUp(size++);
+		} else if (key < keys[v]) {
+			keys[v] = key;
+			siftUp(position[v]);
+		} else {
+			keys[v] = key;
+			siftDown(position[v]);
+		}
+	}
+
+	/**
+	 * Remove the vertex with the smallest key
+	 * 
+	 * @return the vertex
+	 */
+	public int poll() {
+		int v = heap[0];
+		remove(v);
+		return v;
+	}
+
+	/**
+	 * Remove a vertex if it is in the heap
+	 * 
+	 * @param v the vertex
+	 */
+	public void remove(int v) {
+		int i = position[v];
+		if (i < 0)
+			return;
+		position[v] = -1;
+		size--;
+		if (i == size)
+			return;
+		// move the last vertex into the gap
+		int last = heap[size];
+		heap[i] = last;
+		position[last] = i;
+		if (i > 0 && keys[last] < keys[heap[(i - 1) >>> 1]])
+			siftUp(i);
+		else
+			siftDown(i);
+	}
+
+	private void siftUp(int i) {
+		int v = heap[i];
+		float key = keys[v];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			int p = heap[parent];
+			if (!(key < keys[p]))
+				break;
+			heap[i] = p;
+			position[p] = i;
+			i = parent;
+		}
+		heap[i] = v;
+		position[v] = i;
+	}
+
+	private void siftDown(int i) {
+		int v = heap[i];
+		float key = keys[v];
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]])
+				child++;
+			int c = heap[child];
+			if (!(keys[c] < key))
+				break;
+			heap[i] = c;
+			position[c] = i;
+			i = child;
+		}
+		heap[i] = v;
+		position[v] = i;
+	}
+
+}
@@ -0,0 +1,285 @@
+/**
+ * Exact FVS solver based on the compression step of iterative compression.
+ * Given a FVS S (i.e. the approximation solution), every solution T splits S
+ * into a deleted part (S within T) and a kept part (S without T), which has to
+ * stay acyclic. The solver first branches on the vertices of S (delete or
+ * keep) and then solves the disjoint problem: find the lightest set of the
+ * remaining vertices (a forest) whose removal makes the graph acyclic while the
+ * kept vertices are undeletable.
+ * 
+ * The disjoint problem is solved by branching as well. Kept vertices form
+ * components of a forest, and every node first applies the reductions:
+ * <ul>
+ * <li>vertices with a degree of 1 or less are removed</li>
+ * <li>a deletable vertex of degree 2 with a deletable neighbour that is not
+ * heavier is kept (bypassed): every cycle through it also passes the
+ * neighbour, which can be deleted instead</li>
+ * <li>a deletable vertex with two edges into the same component must be
+ * deleted</li>
+ * </ul>
+ * The search then branches on a deletable vertex with edges into at least two
+ * different components, the most first (delete it or keep it, which merges
+ * these components), so every branch lowers the number of components or adds
+ * to the deleted weight. The number of branches on S is 2^|S|, so the running
+ * time mainly depends on the size of the starting solution.
+ */
+class IterativeCompression {
+
+	private final Graph g;
+	private final SearchContext context;
+
+	// the vertices branched on first (the starting solution)
+	private final int[] priority;
+
+	// the deleted vertices on the current path
+	private final FvsSolution path;
+
+	// component labels of the kept vertices
+	private final int[] component, labelStamp, seenStamp, queue;
+	private int stamp;
+
+	/**
+	 * Create a solver
+	 * 
+	 * @param g        the graph
+	 * @param priority the vertices to branch on first
+	 * @param context  the context holding the bound and the best solution
+	 */
+	IterativeCompression(Graph g, int[] priority, SearchContext context) {
+		this.g = g;
+		this.context = context;
+		this.priority = priority;
+		int n = g.verticesCount;
+		path = new FvsSolution(n);
+		component = new int[n];
+		labelStamp = new int[n];
+		seenStamp = new int[n];
+		queue = new int[n];
+	}
+
+	/**
+	 * Solve the FVS of a graph starting with a given solution
+	 * 
+	 * @param g       the graph
+	 * @param start   a FVS of the graph (i.e. the approximation solution)
+	 * @param context the context holding the bound
+	 * @return the optimal solution or the starting solution if it is optimal
+	 */
+	public static FvsSolution solve(Graph g, FvsSolution start, SearchContext context) {
+		context.offer(start, (float) start.weight());
+
+		IterativeCompression solver = new IterativeCompression(g, start.toArray(), context);
+		solver.search(0.0f, 0);
+		g.reset();
+		return context.getIncumbent();
+	}
+
+	/**
+	 * Solve the FVS of a graph without a starting solution: every node deletes a
+	 * vertex or keeps it (forbids its deletion and merges it with its kept
+	 * neighbours), the solutions are offered to the context
+	 * 
+	 * @param g       the graph
+	 * @param context the context holding the bound and the best solution
+	 */
+	public static void branch(Graph g, SearchContext context) {
+		new IterativeCompression(g, new int[0], context).search(0.0f, 0);
+		g.reset();
+	}
+
+	/**
+	 * Branch on a node of the search
+	 * 
+	 * @param current the weight of the vertices deleted so far
+	 * @param depth   the number of decisions so far
+	 */
+	void search(float current, int depth) {
+		SolverMetrics metrics = context.metrics;
+
+		// see if bound or best solution is exceeded
+		if (context.prunes(current)) {
+			if (metrics != null)
+				metrics.prune(SolverMetrics.Prune.BOUND);
+			return;
+		}
+		// see if a limit is reached or the search was cancelled
+		if (context.stops(current))
+			return;
+		if (metrics != null)
+			metrics.node(depth);
+
+		int mark = g.mark();
+		int pathMark = path.size();
+		boolean done = false;
+		while (!done) {
+			// clean graph (remove vertices with deg <= 1)
+			long start = SolverMetrics.start(metrics);
+			g.cleanUp();
+			SolverMetrics.stop(metrics, SolverMetrics.Phase.CLEAN_UP, start);
+
+			start = SolverMetrics.start(metrics);
+			boolean acyclic = g.isAcyclic();
+			SolverMetrics.stop(metrics, SolverMetrics.Phase.ACYCLIC, start);
+			if (acyclic) {
+				// new best solution
+				context.offer(path, current);
+				break;
+			}
+
+			// see if the lower bound of the rest exceeds the bound, kept vertices
+			// can not be taken
+			start = SolverMetrics.start(metrics);
+			float lowerBound = LowerBound.of(g, context.getBound() - current);
+			SolverMetrics.stop(metrics, SolverMetrics.Phase.LOWER_BOUND, start);
+			if (context.prunes(current + lowerBound)) {
+				if (metrics != null)
+					metrics.prune(SolverMetrics.Prune.LOWER_BOUND);
+				break;
+			}
+
+			start = SolverMetrics.start(metrics);
+			bypass();
+			labelComponents();
+
+			// delete the vertices with two edges into one component, else find the
+			// vertex to branch on: one with edges into two components if there is one
+			done = true;
+			int v = -1;
+			long vScore = -1;
+			for (int u = 0; u < g.verticesCount; u++) {
+				if (!g.isEnabled(u) || g.isForbidden(u))
+					continue;
+				int components = keptNeighbours(u);
+				if (components < 0) {
+					if (metrics != null)
+						metrics.branch(SolverMetrics.Branch.FORCED);
+					g.disableVertex(u);
+					path.add(u, g.weights[u]);
+					current += g.weights[u];
+					done = false;
+					continue;
+				}
+				// more components first (two or more above all), then higher degree
+				long score = (long) Math.min(components, 2) * g.verticesCount * g.verticesCount
+						+ (long) components * g.verticesCount + g.degrees[u];
+				if (score > vScore) {
+					v = u;
+					vScore = score;
+				}
+			}
+			SolverMetrics.stop(metrics, SolverMetrics.Phase.CANDIDATES, start);
+
+			// see if the forced vertices exceed the bound
+			if (!done && context.prunes(current)) {
+				if (metrics != null)
+					metrics.prune(SolverMetrics.Prune.BOUND);
+				break;
+			}
+			if (done) {
+				for (int u : priority) {
+					if (g.isEnabled(u) && !g.isForbidden(u)) {
+						v = u;
+						break;
+					}
+				}
+				if (v != -1)
+					branch(v, current, depth);
+			}
+		}
+
+		while (path.size() > pathMark) {
+			path.removeLast(g.weights[path.get(path.size() - 1)]);
+		}
+		g.undoTo(mark);
+	}
+
+	/**
+	 * Branch on a vertex: delete it or keep it
+	 */
+	private void branch(int v, float current, int depth) {
+		if (context.metrics != null)
+			context.metrics.branch(SolverMetrics.Branch.COMPRESSION);
+
+		// delete v
+		int mark = g.mark();
+		g.disableVertex(v);
+		path.add(v, g.weights[v]);
+		search(current + g.weights[v], depth + 1);
+		path.removeLast(g.weights[v]);
+		g.undoTo(mark);
+
+		// keep v
+		g.forbidVertex(v);
+		search(current, depth + 1);
+		g.undoTo(mark);
+	}
+
+	/**
+	 * Keep the deletable vertices of degree 2 with a deletable neighbour that is
+	 * not heavier
+	 */
+	private void bypass() {
+		for (int v = 0; v < g.verticesCount; v++) {
+			if (!g.isEnabled(v) || g.isForbidden(v) || g.degrees[v] != 2)
+				continue;
+			for (int i = g.offsets[v]; i < g.offsets[v + 1]; i++) {
+				int x = g.neighbors[i];
+				if (x != v && g.isEnabled(x) && !g.isForbidden(x) && g.weights[x] <= g.weights[v]) {
+					g.forbidVertex(v);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Label the components of the enabled kept vertices
+	 */
+	private void labelComponents() {
+		stamp++;
+		for (int root = 0; root < g.verticesCount; root++) {
+			if (!g.isForbidden(root) || !g.isEnabled(root) || labelStamp[root] == stamp)
+				continue;
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = root;
+			labelStamp[root] = stamp;
+			component[root] = root;
+			while (head < tail) {
+				int u = queue[head++];
+				for (int i = g.offsets[u]; i < g.offsets[u + 1]; i++) {
+					int x = g.neighbors[i];
+					if (!g.isForbidden(x) || !g.isEnabled(x) || labelStamp[x] == stamp)
+						continue;
+					labelStamp[x] = stamp;
+					component[x] = root;
+					queue[tail++] = x;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Count the different kept components a vertex is adjacent to
+	 * 
+	 * @param v the vertex
+	 * @return the number of components or -1 if v has two edges into the same
+	 *         component (keeping v would close a cycle)
+	 */
+	private int keptNeighbours(int v) {
+		stamp++;
+		int count = 0;
+		for (int i = g.offsets[v]; i < g.offsets[v + 1]; i++) {
+			int x = g.neighbors[i];
+			if (!g.isForbidden(x) || !g.isEnabled(x))
+				continue;
+			int c = component[x];
+			if (seenStamp[c] == stamp)
+				return -1;
+			seenStamp[c] = stamp;
+			count++;
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,349 @@
+import java.util.Arrays;
+
+/**
+ * This class reduces a graph with the reduction rules of the weighted FVS
+ * before it is solved. The rules are applied in rounds until nothing changes:
+ * <ul>
+ * <li>vertices with a degree of 1 or less are removed</li>
+ * <li>a chain of degree 2 vertices is shortened to its lightest vertex, which
+ * is bypassed if it is not lighter than both chain ends</li>
+ * <li>a vertex with a self loop (bypassed chain returning to its start) or a
+ * cycle only consisting of degree 2 vertices is forced into the solution</li>
+ * <li>parallel edges are merged into a double edge, which marks a forced
+ * 2-cycle</li>
+ * </ul>
+ * A solution of the kernel graph lifted with {@link #lift(FvsSolution)} is a
+ * solution of the original graph.
+ */
+public class Kernel {
+
+	// the reduced graph
+	public final Graph graph;
+
+	// the original vertex id of every vertex of the reduced graph
+	public final int[] original;
+
+	// the original vertex ids forced into the solution and their weights
+	public final int[] forced;
+	public final float[] forcedWeights;
+	public final float forcedWeight;
+
+	// size of the instance before and after the reduction
+	public final int originalVerticesCount, originalEdgesCount;
+	public final int rounds;
+
+	private Kernel(Graph graph, int[] original, int[] forced, float[] forcedWeights, float forcedWeight,
+			int originalVerticesCount, int originalEdgesCount, int rounds) {
+		this.graph = graph;
+		this.original = original;
+		this.forced = forced;
+		this.forcedWeights = forcedWeights;
+		this.forcedWeight = forcedWeight;
+		this.originalVerticesCount = originalVerticesCount;
+		this.originalEdgesCount = originalEdgesCount;
+		this.rounds = rounds;
+	}
+
+	/**
+	 * Reduce the enabled part of a graph. The graph itself is not changed.
+	 * 
+	 * @param g the graph
+	 * @return the kernel
+	 */
+	public static Kernel kernelize(Graph g) {
+		// original ids of the current round graph
+		int[] original = new int[g.verticesCount];
+		for (int i = 0; i < original.length; i++) {
+			original[i] = i;
+		}
+
+		int[] forced = new int[0];
+		float[] forcedWeights = new float[0];
+		int forcedCount = 0;
+		float forcedWeight = 0.0f;
+
+		Graph current = g.copy();
+		int verticesBefore = current.enabledVerticesCount;
+		int edgesBefore = current.countEnabledEdges();
+		int rounds = 0;
+
+		while (true) {
+			rounds++;
+			int verticesCount = current.enabledVerticesCount;
+			int edgesCount = current.countEnabledEdges();
+			Round round = new Round(current);
+			round.reduce();
+			Graph next = round.toGraph();
+
+			// collect forced vertices
+			for (int i = 0; i < round.forcedCount; i++) {
+				int v = round.forced[i];
+				if (forcedCount == forced.length) {
+					forced = Arrays.copyOf(forced, Math.max(8, 2 * forcedCount));
+					forcedWeights = Arrays.copyOf(forcedWeights, forced.length);
+				}
+				forced[forcedCount] = original[v];
+				forcedWeights[forcedCount++] = current.weights[v];
+				forcedWeight += current.weights[v];
+			}
+
+			// see if the round changed anything
+			boolean changed = round.forcedCount > 0 || next.verticesCount != verticesCount
+					|| next.edgesCount != edgesCount;
+
+			// build graph for the next round
+			int[] nextOriginal = new int[round.keptCount];
+			for (int i = 0; i < round.keptCount; i++) {
+				nextOriginal[i] = original[round.kept[i]];
+			}
+			current = next;
+			original = nextOriginal;
+
+			if (!changed)
+				break;
+		}
+
+		return new Kernel(current, original, Arrays.copyOf(forced, forcedCount),
+				Arrays.copyOf(forcedWeights, forcedCount), forcedWeight, verticesBefore, edgesBefore, rounds);
+	}
+
+	/**
+	 * Lift a solution of the kernel graph to a solution of the original graph
+	 * 
+	 * @param solution the solution of the kernel graph
+	 * @return the solution in original vertex ids (including forced vertices)
+	 */
+	public FvsSolution lift(FvsSolution solution) {
+		FvsSolution lifted = new FvsSolution(forced.length + solution.size());
+		for (int i = 0; i < forced.length; i++) {
+			lifted.add(forced[i], forcedWeights[i]);
+		}
+		for (int i = 0; i < solution.size(); i++) {
+			int v = solution.get(i);
+			lifted.add(original[v], graph.originalWeights[v]);
+		}
+		return lifted;
+	}
+
+	@Override
+	public String toString() {
+		return "Kernel: " + originalVerticesCount + " vertices / " + originalEdgesCount + " edges -> "
+				+ graph.verticesCount + " vertices / " + graph.edgesCount + " edges, " + forced.length
+				+ " forced (weight " + forcedWeight + "), " + rounds + " rounds";
+	}
+
+	/**
+	 * One round of reductions on a graph
+	 */
+	private static class Round {
+
+		final Graph g;
+
+		// kept vertices (old ids), their new ids and the forced vertices
+		int[] kept;
+		int keptCount;
+		int[] newId;
+		int[] forced;
+		int forcedCount;
+		boolean[] isForced;
+
+		// edges between old ids (endpoints 2e and 2e + 1)
+		int[] ends;
+		int endsCount;
+
+		// marks vertices of a chain that was already handled
+		boolean[] visited;
+
+		// scratch array for chains
+		int[] chain;
+
+		Round(Graph g) {
+			this.g = g;
+			int n = g.verticesCount;
+			kept = new int[n];
+			newId = new int[n];
+			forced = new int[n];
+			isForced = new boolean[n];
+			visited = new boolean[n];
+			chain = new int[n];
+			ends = new int[16];
+		}
+
+		void reduce() {
+			// remove vertices with deg <= 1
+			g.cleanUp();
+
+			// walk all chains starting at a hub (deg > 2)
+			for (int a = 0; a < g.verticesCount; a++) {
+				if (!g.isEnabled(a) || g.degrees[a] <= 2)
+					continue;
+				for (int i = g.offsets[a]; i < g.offsets[a + 1]; i++) {
+					int other = g.neighbors[i];
+					if (!g.isEnabled(other))
+						continue;
+					if (g.degrees[other] > 2) {
+						// edge between hubs, added once by the smaller endpoint
+						if (a < other)
+							addEdge(a, other);
+						continue;
+					}
+					if (visited[other])
+						continue;
+					walkChain(a, i);
+				}
+			}
+
+			// remaining degree 2 vertices form cycles on their own
+			for (int v = 0; v < g.verticesCount; v++) {
+				if (!g.isEnabled(v) || visited[v])
+					continue;
+				if (g.degrees[v] != 2)
+					continue;
+
+				// walk around the cycle and force its lightest vertex
+				int lightest = v;
+				int prevEdge = -1;
+				int cur = v;
+				do {
+					visited[cur] = true;
+					if (g.weights[cur] < g.weights[lightest])
+						lightest = cur;
+					int next = nextEntry(cur, prevEdge);
+					prevEdge = g.edgeIds[next];
+					cur = g.neighbors[next];
+				} while (cur != v);
+				force(lightest);
+			}
+
+			// keep all enabled vertices that are not forced
+			for (int v = 0; v < g.verticesCount; v++) {
+				if (!g.isEnabled(v) || isForced[v])
+					continue;
+				if (g.degrees[v] == 2 && !keptChainVertex(v))
+					continue;
+				newId[v] = keptCount;
+				kept[keptCount++] = v;
+			}
+		}
+
+		/**
+		 * Walks a chain of degree 2 vertices starting at hub a via adjacency entry i
+		 * and replaces it by its lightest vertex or by a bypass edge
+		 */
+		private void walkChain(int a, int i) {
+			int length = 0;
+			int prevEdge = g.edgeIds[i];
+			int cur = g.neighbors[i];
+			while (g.degrees[cur] == 2) {
+				visited[cur] = true;
+				chain[length++] = cur;
+				int next = nextEntry(cur, prevEdge);
+				prevEdge = g.edgeIds[next];
+				cur = g.neighbors[next];
+			}
+			int b = cur;
+
+			// lightest vertex of the chain
+			int lightest = chain[0];
+			for (int k = 1; k < length; k++) {
+				if (g.weights[chain[k]] < g.weights[lightest])
+					lightest = chain[k];
+			}
+
+			if (g.weights[lightest] >= Math.min(g.weights[a], g.weights[b])) {
+				// bypass the whole chain
+				if (a == b) {
+					// self loop
+					force(a);
+				} else {
+					addEdge(a, b);
+				}
+			} else {
+				// keep only the lightest vertex
+				keepChainVertex(lightest);
+				addEdge(a, lightest);
+				addEdge(lightest, b);
+			}
+		}
+
+		// chain vertices that survive a round
+		private boolean[] keptChain;
+
+		private void keepChainVertex(int v) {
+			if (keptChain == null)
+				keptChain = new boolean[g.verticesCount];
+			keptChain[v] = true;
+		}
+
+		private boolean keptChainVertex(int v) {
+			return keptChain != null && keptChain[v];
+		}
+
+		/**
+		 * Find the adjacency entry of a degree 2 vertex that does not belong to the
+		 * given edge
+		 */
+		private int nextEntry(int v, int prevEdge) {
+			for (int i = g.offsets[v]; i < g.offsets[v + 1]; i++) {
+				if (!g.isEnabled(g.neighbors[i]))
+					continue;
+				if (g.edgeIds[i] != prevEdge)
+					return i;
+			}
+			throw new IllegalStateException("Vertex " + v + " is not part of a chain");
+		}
+
+		private void force(int v) {
+			if (isForced[v])
+				return;
+			isForced[v] = true;
+			forced[forcedCount++] = v;
+		}
+
+		private void addEdge(int v, int w) {
+			if (endsCount + 2 > ends.length)
+				ends = Arrays.copyOf(ends, 2 * ends.length);
+			ends[endsCount++] = v;
+			ends[endsCount++] = w;
+		}
+
+		/**
+		 * Build the graph of the kept vertices. Edges incident to forced vertices
+		 * are dropped and parallel edges are merged into (at most) a double edge.
+		 */
+		Graph toGraph() {
+			// encode edges between kept vertices as sorted keys
+			long[] keys = new long[endsCount / 2];
+			int count = 0;
+			for (int k = 0; k < endsCount; k += 2) {
+				int v = ends[k];
+				int w = ends[k + 1];
+				if (isForced[v] || isForced[w])
+					continue;
+				int x = Math.min(newId[v], newId[w]);
+				int y = Math.max(newId[v], newId[w]);
+				keys[count++] = ((long) x << 32) | y;
+			}
+			Arrays.sort(keys, 0, count);
+
+			// merge parallel edges
+			int[] newEnds = new int[2 * count];
+			int m = 0;
+			for (int k = 0; k < count; k++) {
+				if (k >= 2 && keys[k] == keys[k - 2])
+					continue;
+				newEnds[2 * m] = (int) (keys[k] >>> 32);
+				newEnds[2 * m + 1] = (int) keys[k];
+				m++;
+			}
+
+			float[] weights = new float[keptCount];
+			for (int i = 0; i < keptCount; i++) {
+				weights[i] = g.weights[kept[i]];
+			}
+			return Graph.fromEdges(weights, newEnds, m);
+		}
+
+	}
+
+}
@@ -0,0 +1,541 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A local search that improves a FVS. The vertices outside of the solution
+ * form a forest, so a solution vertex put back into the forest closes no, one
+ * or several cycles. The moves are:
+ * <ul>
+ * <li>redundancy removal: a solution vertex closing no cycle is put back</li>
+ * <li>1-swap: a solution vertex closing one cycle is put back and a lighter
+ * vertex of that cycle is deleted instead</li>
+ * <li>2-for-1 swap: a 1-swap after which another solution vertex closes no
+ * cycle any more, so two vertices are exchanged for one</li>
+ * </ul>
+ * The search first descends with improving moves only and then anneals: a
+ * random 1-swap that makes the solution heavier by d is accepted with the
+ * probability exp(-d / t), where the temperature t falls geometrically until
+ * the time cap or the iteration limit is reached. The lightest solution seen is
+ * descended once more and returned.
+ */
+class LocalSearch {
+
+	// the time cap used if none is configured
+	public static final long DEFAULT_MILLIS = 10;
+
+	// the annealing runs at most this many iterations per vertex
+	private static final int ITERATIONS_PER_VERTEX = 200;
+
+	// the start temperature relative to the mean weight of a solution vertex
+	private static final double START_TEMPERATURE = 2.0;
+
+	// the temperature falls to this fraction of the start temperature
+	private static final double FINAL_TEMPERATURE = 1e-3;
+
+	// the time is only checked every this many iterations
+	private static final int CHECK_INTERVAL = 64;
+
+	private final Graph g;
+	private final int n;
+	private final float[] weights;
+	private final Random random;
+
+	// the current solution and its weight
+	private final boolean[] inSolution;
+	private double weight;
+
+	// the enabled vertices, heaviest first
+	private final int[] byWeight;
+	private int count;
+
+	// the forest of the vertices outside of the solution
+	private final int[] root;
+	private final int[] parent;
+	private final int[] depth;
+	private final int[] queue;
+
+	// the vertices of the solution when the forest was built
+	private final int[] members;
+	private int membersCount;
+
+	// scratch of the union-find, the cycle search and the swaps
+	private final int[] sets;
+	private final int[] seen;
+	private final int[] first;
+	private final int[] path;
+	private final int[] marks;
+	private final int[] multiplicity;
+	private final boolean[] saved;
+	private int stamp;
+
+	// the roots of the trees changed in the current pass of the descent
+	private final int[] changed;
+	private int pass;
+
+	private LocalSearch(Graph g, FvsSolution start, long seed) {
+		this.g = g;
+		this.n = g.verticesCount;
+		this.weights = g.weights;
+		this.random = new Random(seed);
+		this.inSolution = new boolean[n];
+		for (int i = 0; i < start.size(); i++) {
+			int v = start.get(i);
+			if (!inSolution[v]) {
+				inSolution[v] = true;
+				weight += weights[v];
+			}
+		}
+
+		// heavier first, encoded as (inverted weight bits, vertex)
+		long[] keys = new long[g.enabledVerticesCount];
+		for (int v = 0; v < n; v++) {
+			if (g.isEnabled(v))
+				keys[count++] = ((long) (Integer.MAX_VALUE - Float.floatToIntBits(weights[v])) << 32) | v;
+		}
+		Arrays.sort(keys, 0, count);
+		this.byWeight = new int[count];
+		for (int i = 0; i < count; i++) {
+			byWeight[i] = (int) keys[i];
+		}
+
+		this.root = new int[n];
+		this.parent = new int[n];
+		this.depth = new int[n];
+		this.queue = new int[n];
+		this.members = new int[n];
+		this.sets = new int[n];
+		this.seen = new int[n];
+		this.first = new int[n];
+		this.path = new int[n];
+		this.marks = new int[n];
+		this.multiplicity = new int[n];
+		this.saved = new boolean[n];
+		this.changed = new int[n];
+	}
+
+	/**
+	 * Improve a FVS of the enabled part of a graph. The graph is not changed.
+	 * 
+	 * @param g      the graph
+	 * @param start  the FVS to start from
+	 * @param millis the time cap of the search, an interruption of the thread
+	 *               ends it early as well
+	 * @param seed   the seed of the random moves
+	 * @return a FVS that is not heavier than the start
+	 */
+	public static FvsSolution improve(Graph g, FvsSolution start, long millis, long seed) {
+		return improve(g, start, millis, seed, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Improve a FVS of the enabled part of a graph within a time cap and a
+	 * deadline. The graph is not changed.
+	 * 
+	 * @param g        the graph
+	 * @param start    the FVS to start from
+	 * @param millis   the time cap of the search
+	 * @param seed     the seed of the random moves
+	 * @param deadline the search stops at this deadline (nanoseconds) as well
+	 * @return a FVS that is not heavier than the start
+	 */
+	public static FvsSolution improve(Graph g, FvsSolution start, long millis, long seed, long deadline) {
+		deadline = Math.min(deadline, System.nanoTime() + millis * 1000000L);
+		LocalSearch search = new LocalSearch(g, start, seed);
+		search.removeRedundant();
+		search.descend(deadline);
+		search.anneal(deadline);
+		FvsSolution solution = search.solution();
+		return solution.weight() <= start.weight() ? solution : start;
+	}
+
+	/**
+	 * Apply improving moves until there are none or the deadline is reached. A
+	 * pass applies the 1-swaps of every solution vertex whose trees were not
+	 * changed by an earlier move of the pass, only a pass without 1-swaps tries
+	 * the 2-for-1 swaps.
+	 * 
+	 * @param deadline the deadline in nanoseconds
+	 */
+	private void descend(long deadline) {
+		boolean improved;
+		do {
+			improved = false;
+			buildForest();
+			pass++;
+			for (int i = 0; i < membersCount; i++) {
+				if (i % CHECK_INTERVAL == 0 && expired(deadline)) {
+					if (improved)
+						removeRedundant();
+					return;
+				}
+				improved |= swapLighter(members[i]);
+			}
+			if (improved) {
+				removeRedundant();
+				continue;
+			}
+			for (int i = 0; i < membersCount && !improved; i++) {
+				if (i % CHECK_INTERVAL == 0 && expired(deadline))
+					return;
+				improved = swapTwo(members[i]);
+			}
+		} while (improved && !expired(deadline));
+	}
+
+	/**
+	 * Check if the deadline is reached or the thread is interrupted
+	 */
+	private static boolean expired(long deadline) {
+		return System.nanoTime() >= deadline || Thread.currentThread().isInterrupted();
+	}
+
+	/**
+	 * Put a solution vertex back into the forest if it closes no cycle or swap it
+	 * with the lightest vertex of the cycle if that is lighter. The trees touched
+	 * are marked as changed.
+	 * 
+	 * @param u the solution vertex
+	 * @return true if the solution was improved
+	 */
+	private boolean swapLighter(int u) {
+		for (int j = g.offsets[u]; j < g.offsets[u + 1]; j++) {
+			int x = g.neighbors[j];
+			if (!inSolution[x] && g.isEnabled(x) && changed[root[x]] == pass)
+				return false;
+		}
+		int length = cycle(u);
+		if (length < 0)
+			return false;
+		int lightest = u;
+		for (int i = 0; i < length; i++) {
+			if (weights[path[i]] < weights[lightest])
+				lightest = path[i];
+		}
+		if (length > 0 && lightest == u)
+			return false;
+
+		for (int j = g.offsets[u]; j < g.offsets[u + 1]; j++) {
+			int x = g.neighbors[j];
+			if (!inSolution[x] && g.isEnabled(x))
+				changed[root[x]] = pass;
+		}
+		root[u] = u;
+		changed[u] = pass;
+		if (length == 0) {
+			inSolution[u] = false;
+			weight -= weights[u];
+		} else {
+			swap(u, lightest);
+		}
+		return true;
+	}
+
+	/**
+	 * Try the 2-for-1 swaps of a solution vertex closing one cycle: a vertex of
+	 * the cycle may be the only one blocking another solution vertex that is heavy
+	 * enough. The forest is stale if one is applied.
+	 * 
+	 * @param u the solution vertex
+	 * @return true if the solution was improved
+	 */
+	private boolean swapTwo(int u) {
+		int length = cycle(u);
+		for (int i = 0; i < length; i++) {
+			int x = path[i];
+			if (blocked(x, u, weights[x] - weights[u])) {
+				double before = weight;
+				System.arraycopy(inSolution, 0, saved, 0, n);
+				swap(u, x);
+				removeRedundant();
+				if (weight < before)
+					return true;
+				System.arraycopy(saved, 0, inSolution, 0, n);
+				weight = before;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Check if a forest vertex has a neighbour in the solution other than u that
+	 * is heavier than a given weight
+	 */
+	private boolean blocked(int x, int u, float weight) {
+		for (int i = g.offsets[x]; i < g.offsets[x + 1]; i++) {
+			int v = g.neighbors[i];
+			if (v != u && inSolution[v] && g.isEnabled(v) && weights[v] > weight)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Anneal with random 1-swaps and insertions until the deadline or the iteration limit
+	 * 
+	 * @param deadline the deadline in nanoseconds
+	 */
+	private void anneal(long deadline) {
+		boolean[] best = inSolution.clone();
+		double bestWeight = weight;
+
+		buildForest();
+		if (membersCount == 0)
+			return;
+		long iterations = (long) ITERATIONS_PER_VERTEX * count;
+		double temperature = START_TEMPERATURE * weight / membersCount;
+		double cooling = Math.pow(FINAL_TEMPERATURE, 1.0 / iterations);
+
+		for (long i = 0; i < iterations; i++, temperature *= cooling) {
+			if (i % CHECK_INTERVAL == 0 && expired(deadline))
+				break;
+
+			// a 1-swap if u closes one cycle, an insertion else
+			int u = members[random.nextInt(membersCount)];
+			int length = cycle(u);
+			if (length > 0) {
+				path[0] = path[random.nextInt(length)];
+				length = 1;
+			} else {
+				length = insertion(u);
+			}
+			double delta = -weights[u];
+			for (int j = 0; j < length; j++) {
+				delta += weights[path[j]];
+			}
+			if (delta > 0.0 && random.nextDouble() >= Math.exp(-delta / temperature))
+				continue;
+
+			inSolution[u] = false;
+			weight -= weights[u];
+			for (int j = 0; j < length; j++) {
+				inSolution[path[j]] = true;
+				weight += weights[path[j]];
+			}
+			removeRedundant();
+			buildForest();
+			if (weight < bestWeight) {
+				System.arraycopy(inSolution, 0, best, 0, n);
+				bestWeight = weight;
+			}
+		}
+
+		System.arraycopy(best, 0, inSolution, 0, n);
+		weight = bestWeight;
+		descend(deadline);
+	}
+
+	/**
+	 * Find the forest neighbours to delete when a solution vertex is put back:
+	 * of the neighbours in one tree only the heaviest joined by a single edge is
+	 * kept, so no cycle is closed
+	 * 
+	 * @param u the solution vertex
+	 * @return the number of neighbours to delete (stored in path)
+	 */
+	private int insertion(int u) {
+		// the multiplicity of the edges to the neighbours
+		stamp++;
+		for (int j = g.offsets[u]; j < g.offsets[u + 1]; j++) {
+			int x = g.neighbors[j];
+			if (marks[x] != stamp) {
+				marks[x] = stamp;
+				multiplicity[x] = 0;
+			}
+			multiplicity[x]++;
+		}
+
+		// the neighbour kept in every tree
+		for (int j = g.offsets[u]; j < g.offsets[u + 1]; j++) {
+			int x = g.neighbors[j];
+			if (x == u || inSolution[x] || !g.isEnabled(x) || multiplicity[x] > 1)
+				continue;
+			int r = root[x];
+			if (seen[r] != stamp || weights[x] > weights[first[r]]) {
+				seen[r] = stamp;
+				first[r] = x;
+			}
+		}
+
+		int length = 0;
+		for (int j = g.offsets[u]; j < g.offsets[u + 1]; j++) {
+			int x = g.neighbors[j];
+			if (x == u || inSolution[x] || !g.isEnabled(x) || multiplicity[x] == 0)
+				continue;
+			// every neighbour is listed once
+			multiplicity[x] = 0;
+			int r = root[x];
+			if (seen[r] != stamp || first[r] != x)
+				path[length++] = x;
+		}
+		return length;
+	}
+
+	private void swap(int u, int x) {
+		inSolution[u] = false;
+		inSolution[x] = true;
+		weight += weights[x] - weights[u];
+	}
+
+	/**
+	 * Put back the solution vertices closing no cycle, heaviest first
+	 * 
+	 * @return true if a vertex was put back
+	 */
+	private boolean removeRedundant() {
+		// union-find of the forest
+		for (int i = 0; i < count; i++) {
+			sets[byWeight[i]] = byWeight[i];
+		}
+		for (int i = 0; i < count; i++) {
+			int v = byWeight[i];
+			if (inSolution[v])
+				continue;
+			for (int j = g.offsets[v]; j < g.offsets[v + 1]; j++) {
+				int x = g.neighbors[j];
+				if (x < v && !inSolution[x] && g.isEnabled(x))
+					sets[find(x)] = find(v);
+			}
+		}
+
+		boolean changed = false;
+		for (int i = 0; i < count; i++) {
+			int u = byWeight[i];
+			if (!inSolution[u] || !closesNoCycle(u))
+				continue;
+			inSolution[u] = false;
+			weight -= weights[u];
+			for (int j = g.offsets[u]; j < g.offsets[u + 1]; j++) {
+				int x = g.neighbors[j];
+				if (!inSolution[x] && g.isEnabled(x))
+					sets[find(x)] = u;
+			}
+			changed = true;
+		}
+		return changed;
+	}
+
+	/**
+	 * Check with the union-find if a solution vertex has its forest neighbours in
+	 * different trees
+	 */
+	private boolean closesNoCycle(int u) {
+		stamp++;
+		for (int j = g.offsets[u]; j < g.offsets[u + 1]; j++) {
+			int x = g.neighbors[j];
+			if (x == u)
+				return false;
+			if (inSolution[x] || !g.isEnabled(x))
+				continue;
+			int r = find(x);
+			if (seen[r] == stamp)
+				return false;
+			seen[r] = stamp;
+		}
+		return true;
+	}
+
+	private int find(int v) {
+		while (sets[v] != v) {
+			sets[v] = sets[sets[v]];
+			v = sets[v];
+		}
+		return v;
+	}
+
+	/**
+	 * Root every tree of the forest by a BFS and collect the solution vertices
+	 */
+	private void buildForest() {
+		membersCount = 0;
+		stamp++;
+		for (int i = 0; i < count; i++) {
+			int r = byWeight[i];
+			if (inSolution[r]) {
+				members[membersCount++] = r;
+				continue;
+			}
+			if (seen[r] == stamp)
+				continue;
+			seen[r] = stamp;
+			root[r] = r;
+			parent[r] = -1;
+			depth[r] = 0;
+			int head = 0, tail = 0;
+			queue[tail++] = r;
+			while (head < tail) {
+				int v = queue[head++];
+				for (int j = g.offsets[v]; j < g.offsets[v + 1]; j++) {
+					int x = g.neighbors[j];
+					if (seen[x] == stamp || inSolution[x] || !g.isEnabled(x))
+						continue;
+					seen[x] = stamp;
+					root[x] = r;
+					parent[x] = v;
+					depth[x] = depth[v] + 1;
+					queue[tail++] = x;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Find the cycle a solution vertex closes when it is put back into the forest
+	 * 
+	 * @param u the solution vertex
+	 * @return the number of forest vertices of the cycle (stored in path), 0 if
+	 *         it closes no cycle and -1 if it closes several
+	 */
+	private int cycle(int u) {
+		stamp++;
+		int a = -1, b = -1;
+		for (int j = g.offsets[u]; j < g.offsets[u + 1]; j++) {
+			int x = g.neighbors[j];
+			if (x == u)
+				return -1;
+			if (inSolution[x] || !g.isEnabled(x))
+				continue;
+			int r = root[x];
+			if (seen[r] == stamp) {
+				if (a >= 0)
+					return -1;
+				a = first[r];
+				b = x;
+			} else {
+				seen[r] = stamp;
+				first[r] = x;
+			}
+		}
+		if (a < 0)
+			return 0;
+
+		// the tree path between the two neighbours
+		int length = 0;
+		while (depth[a] > depth[b]) {
+			path[length++] = a;
+			a = parent[a];
+		}
+		while (depth[b] > depth[a]) {
+			path[length++] = b;
+			b = parent[b];
+		}
+		while (a != b) {
+			path[length++] = a;
+			path[length++] = b;
+			a = parent[a];
+			b = parent[b];
+		}
+		path[length++] = a;
+		return length;
+	}
+
+	private FvsSolution solution() {
+		FvsSolution solution = new FvsSolution(n);
+		for (int i = 0; i < count; i++) {
+			int v = byWeight[i];
+			if (inSolution[v])
+				solution.add(v, weights[v]);
+		}
+		return solution;
+	}
+
+}
@@ -0,0 +1,165 @@
+import java.util.Arrays;
+
+/**
+ * This class holds admissible lower bounds on the weight of a FVS of the
+ * enabled part of a graph. They are used to cut subtrees of the bounded search
+ * tree before a full solution is reached. Forbidden vertices can not be taken,
+ * so the bounds are infinite if the allowed vertices can not break all cycles.
+ */
+class LowerBound {
+
+	// bounds are lowered by this factor against rounding errors of float sums
+	static final float TOLERANCE = 1.0f - 1e-6f;
+
+	// BFS roots used to find the cycles of the packing
+	private static final int PACKING_ROOTS = 1;
+
+	// the enabled vertices a packing may scan in total (one BFS per cycle), so a
+	// packing of a large graph stops early with a weaker bound
+	private static final long PACKING_WORK = 1L << 20;
+
+	private LowerBound() {
+	}
+
+	/**
+	 * Compute the best lower bound of a cleaned graph (no vertices with deg <= 1)
+	 * 
+	 * @param g     the graph
+	 * @param limit the bound is not refined further once it exceeds this value
+	 * @return the lower bound
+	 */
+	public static float of(Graph g, float limit) {
+		return of(g, limit, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Compute the best lower bound of a cleaned graph (no vertices with deg <= 1)
+	 * that is not refined after a deadline
+	 * 
+	 * @param g        the graph
+	 * @param limit    the bound is not refined further once it exceeds this value
+	 * @param deadline the deadline in nanoseconds
+	 * @return the lower bound
+	 */
+	public static float of(Graph g, float limit, long deadline) {
+		float bound = degree(g);
+		if (bound > limit)
+			return bound;
+		return Math.max(bound, cyclePacking(g, limit, deadline));
+	}
+
+	/**
+	 * A degree based lower bound of a cleaned graph. Removing a FVS S from a graph
+	 * with m edges, n vertices and c components leaves a forest, so the sum of
+	 * deg(v) - 1 over S is at least m - n + c. The bound is the minimal weight
+	 * needed to cover this sum, taking vertices fractionally in order of
+	 * weight / (deg - 1).
+	 * 
+	 * @param g the graph
+	 * @return the lower bound
+	 */
+	public static float degree(Graph g) {
+		long demand = (long) g.countEnabledEdges() - g.enabledVerticesCount + g.countComponents();
+		if (demand <= 0)
+			return 0.0f;
+
+		// the ratios weight / (deg - 1) and covers of the allowed vertices
+		float[] ratios = new float[g.enabledVerticesCount];
+		int[] covers = new int[g.enabledVerticesCount];
+		int count = 0;
+		for (int v = 0; v < g.verticesCount; v++) {
+			if (!g.isEnabled(v) || g.degrees[v] <= 1 || g.isForbidden(v))
+				continue;
+			ratios[count] = g.weights[v] / (g.degrees[v] - 1);
+			covers[count++] = g.degrees[v] - 1;
+		}
+		return cover(ratios, covers, count, demand);
+	}
+
+	/**
+	 * Cover a demand with the cheapest capacities first, the last one taken
+	 * fractionally. The arrays are not changed.
+	 * 
+	 * @param ratios the weight per unit of every capacity
+	 * @param covers the units of every capacity
+	 * @param count  the number of capacities
+	 * @param demand the units to cover
+	 * @return the weight of the cover (lowered against rounding errors) or
+	 *         infinity if the capacities do not cover the demand
+	 */
+	static float cover(float[] ratios, int[] covers, int count, long demand) {
+		// sort by ratio, encoded as (ratio bits, index)
+		long[] keys = new long[count];
+		for (int i = 0; i < count; i++) {
+			keys[i] = ((long) Float.floatToIntBits(ratios[i]) << 32) | i;
+		}
+		Arrays.sort(keys);
+
+		// take the cheapest capacities until the demand is covered
+		float bound = 0.0f;
+		for (int k = 0; k < count && demand > 0; k++) {
+			int i = (int) keys[k];
+			int taken = (int) Math.min(demand, covers[i]);
+			bound += ratios[i] * taken;
+			demand -= taken;
+		}
+		if (demand > 0)
+			return Float.POSITIVE_INFINITY;
+		return bound * TOLERANCE;
+	}
+
+	/**
+	 * A cycle packing lower bound. Repeatedly finds a short cycle, adds its
+	 * minimal weight to the bound, subtracts it from the weights of all cycle
+	 * vertices and removes vertices whose weight dropped to zero (local ratio). A
+	 * packing of vertex disjoint cycles with the sum of their minimal weights is
+	 * the special case where every cycle loses a vertex. The graph is restored
+	 * with the trail afterwards.
+	 * 
+	 * Every partial packing is a lower bound as well, so the packing stops once
+	 * the bound exceeds the limit, its work budget is used up, the deadline
+	 * passed or the thread is interrupted.
+	 * 
+	 * @param g        the graph
+	 * @param limit    the packing stops once the bound exceeds this value
+	 * @param deadline the deadline in nanoseconds
+	 * @return the lower bound
+	 */
+	public static float cyclePacking(Graph g, float limit, long deadline) {
+		int mark = g.mark();
+		float bound = 0.0f;
+		long work = 0;
+
+		int[] cycle;
+		while (bound * TOLERANCE <= limit && work < PACKING_WORK && System.nanoTime() < deadline
+				&& !Thread.currentThread().isInterrupted() && (cycle = g.findShortCycle(PACKING_ROOTS)) != null) {
+			work += g.enabledVerticesCount;
+			float gamma = Float.MAX_VALUE;
+			for (int v : cycle) {
+				if (!g.isForbidden(v))
+					gamma = Math.min(gamma, g.weights[v]);
+			}
+			if (gamma == Float.MAX_VALUE) {
+				// a cycle of forbidden vertices can not be broken
+				bound = Float.POSITIVE_INFINITY;
+				break;
+			}
+			bound += gamma;
+
+			// update weights, remove vertices that are paid for
+			for (int v : cycle) {
+				if (g.isForbidden(v))
+					continue;
+				float weight = g.weights[v] - gamma;
+				g.setWeight(v, weight);
+				if (weight <= 0.0f)
+					g.disableVertex(v);
+			}
+			g.cleanUp();
+		}
+
+		g.undoTo(mark);
+		return bound * TOLERANCE;
+	}
+
+}
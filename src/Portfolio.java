@@ -0,0 +1,172 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Races the algorithms on one graph. The heuristic, the greedy algorithm and
+ * the approximation (both improved by the local search) run on threads of their
+ * own next to the exact algorithm, every one on its own copy of the graph. The
+ * best solution is shared through the atomic bound of the control of the exact
+ * search (see {@link SolveControl#shareBound(float)}), so the search only looks
+ * for lighter solutions, and the solutions of the search replace it when they
+ * are lighter. The race ends as soon as the exact search is complete, which
+ * proves the best solution optimal, or when a limit of the control is reached.
+ * The heuristics still running are interrupted then and all of them stop
+ * early. The race waits a short time for them, and a later solution is ignored.
+ */
+public class Portfolio {
+
+	private static final String USAGE = "usage: \"java FeedbackVertexSet --portfolio <GraphFilePath> [<TimeLimitMillis>]\"";
+
+	// the threads of the heuristics
+	private static final int HEURISTICS = 3;
+
+	// the time the race waits for the interrupted heuristics
+	private static final long JOIN_MILLIS = 100;
+
+	// the control of the caller and the control of the exact search
+	private final SolveControl control;
+	private final SolveControl exactControl;
+
+	// the best solution found by any algorithm
+	private FvsSolution best;
+
+	// true once the race has ended
+	private boolean finished;
+
+	private Portfolio(SolveControl control) {
+		this.control = control;
+		this.exactControl = control.derive(this::offer);
+	}
+
+	/**
+	 * Runs the portfolio mode
+	 * 
+	 * @param args the graph file, optionally followed by a time limit in
+	 *             milliseconds
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1 || args.length > 2) {
+			System.err.println("Invalid arguments, " + USAGE);
+			return;
+		}
+
+		SolveControl control = new SolveControl();
+		if (args.length == 2) {
+			try {
+				control.timeLimit(Long.parseLong(args[1]));
+			} catch (NumberFormatException e) {
+				System.err.println("Invalid time limit " + args[1] + ", " + USAGE);
+				return;
+			}
+		}
+
+		Graph g = null;
+
+		try {
+			g = GraphLoader.load(new File(args[0]));
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+
+		int processors = Runtime.getRuntime().availableProcessors();
+		System.out.println();
+		System.out.println("Portfolio (" + processors + " processors):");
+		System.out.println();
+		long l1 = System.currentTimeMillis();
+		ExactResult result = solve(g, processors, control, null);
+		long l2 = System.currentTimeMillis();
+		System.out.println("    Exectuion Time: " + (l2 - l1) + " ms");
+		System.out.println("    Solution Weight: " + (float) result.solution.weight());
+		System.out.println("    Solution Set: " + result.solution);
+		System.out.println("    Status: " + result.status + " (lower bound " + result.lowerBound + ", gap "
+				+ result.gap() + ")");
+		System.out.println();
+	}
+
+	/**
+	 * Solve the FVS of a graph with all algorithms at once
+	 * 
+	 * @param g          the graph (not changed)
+	 * @param processors the number of processors of the exact search
+	 * @param control    the limits, listener and cancellation or null
+	 * @param metrics    the metrics filled by the exact search or null
+	 * @return the best solution, OPTIMAL if the exact search is complete
+	 */
+	public static ExactResult solve(Graph g, int processors, SolveControl control, SolverMetrics metrics) {
+		return new Portfolio(control == null ? new SolveControl() : control).race(g, processors, metrics);
+	}
+
+	private ExactResult race(Graph g, int processors, SolverMetrics metrics) {
+		// the local search has a cap of its own within the time limit
+		long millis = control.getTimeLimit() < 0 ? FeedbackVertexSet.LOCAL_SEARCH_MILLIS
+				: Math.min(FeedbackVertexSet.LOCAL_SEARCH_MILLIS, control.getTimeLimit());
+		Graph[] copies = { g.copy(), g.copy(), g.copy(), g.copy() };
+
+		// the heuristics are daemons, so one still running never holds up the JVM
+		ExecutorService pool = Executors.newFixedThreadPool(HEURISTICS, runnable -> {
+			Thread thread = new Thread(runnable, "portfolio");
+			thread.setDaemon(true);
+			return thread;
+		});
+		ExactResult exact;
+		try {
+			pool.execute(() -> {
+				try {
+					offer(FeedbackVertexSet.heuristicSolution(copies[0]));
+				} catch (OutOfMemoryError e) {
+					// the cycles of a large graph do not fit, the others race on
+				}
+			});
+			pool.execute(() -> {
+				FvsSolution greedy = FeedbackVertexSet.greedySolution(copies[1]);
+				offer(greedy);
+				offer(FeedbackVertexSet.localSearchSolution(copies[1], greedy, millis));
+			});
+			pool.execute(() -> {
+				FvsSolution approximation = FeedbackVertexSet.approximationSolution(copies[2]);
+				offer(approximation);
+				offer(FeedbackVertexSet.localSearchSolution(copies[2], approximation, millis));
+			});
+
+			exact = FeedbackVertexSet.exactAnytime(copies[3], -1, processors,
+					FeedbackVertexSet.Strategy.BRANCHING, exactControl, metrics);
+		} finally {
+			pool.shutdownNow();
+			try {
+				pool.awaitTermination(JOIN_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		synchronized (this) {
+			if (exact.solution != null)
+				offer(exact.solution);
+			finished = true;
+			// a complete search found nothing lighter than the best solution
+			if (exact.status == ExactResult.Status.OPTIMAL || exact.status == ExactResult.Status.INFEASIBLE)
+				return new ExactResult(best, (float) best.weight(), ExactResult.Status.OPTIMAL);
+			return new ExactResult(best, Math.min(exact.lowerBound, (float) best.weight()), exact.status);
+		}
+	}
+
+	/**
+	 * Offer the solution of an algorithm, it is shared if it is the lightest
+	 * 
+	 * @param solution the solution (must not be changed) or null if the algorithm
+	 *                 was interrupted
+	 */
+	private synchronized void offer(FvsSolution solution) {
+		if (finished || solution == null || best != null && !(solution.weight() < best.weight()))
+			return;
+		best = solution;
+		exactControl.shareBound((float) solution.weight());
+		if (control.getListener() != null)
+			control.getListener().improved(solution);
+	}
+
+}
@@ -0,0 +1,208 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class holds the state of one exact search that is shared by all of its
+ * branches (and threads). The bound is stored as the bits of a float in an
+ * atomic integer, so it can be lowered without locks and every branch sees an
+ * improvement immediately. The best solution found so far (incumbent) is only
+ * copied when a branch improves it, the branches themselves just keep the
+ * stack of their chosen vertices.
+ * 
+ * An anytime search additionally has limits. Once one is reached every branch
+ * stops at its next node, and the lightest stopped branch is remembered: the
+ * unexplored solutions are all in stopped branches, so it is a lower bound.
+ */
+class SearchContext {
+
+	// the current boundary of the BST
+	private final AtomicInteger bound;
+
+	// the metrics of the search or null
+	public final SolverMetrics metrics;
+
+	// the best solution found so far and its weight
+	private volatile FvsSolution incumbent;
+	private volatile float incumbentWeight = Float.POSITIVE_INFINITY;
+
+	// the limits of an anytime search (shared by its contexts) or null
+	private final SearchLimits limits;
+
+	// called on every improvement of the incumbent or null
+	private final SolveControl.Listener listener;
+
+	// the solved subgraphs (shared by the contexts of a solve) or null
+	public final TranspositionTable table;
+
+	// the branching of the search
+	public final FeedbackVertexSet.BranchingRule rule;
+
+	// the lower bound of the cleaned root graph (computed before the search) or -1
+	public final float rootLowerBound;
+
+	// the bound shared by the control exceeds the bound of this context by this
+	private final float sharedOffset;
+
+	// the lightest stopped branch
+	private final AtomicInteger stopped = new AtomicInteger(Float.floatToIntBits(Float.POSITIVE_INFINITY));
+
+	/**
+	 * Create a context for one search
+	 * 
+	 * @param bound the initial bound
+	 */
+	public SearchContext(float bound) {
+		this(bound, null);
+	}
+
+	/**
+	 * Create a context for one search
+	 * 
+	 * @param bound   the initial bound
+	 * @param metrics the metrics filled by the search or null
+	 */
+	public SearchContext(float bound, SolverMetrics metrics) {
+		this(bound, metrics, null, null, null, FeedbackVertexSet.BranchingRule.DEFAULT, 0.0f, -1.0f);
+	}
+
+	/**
+	 * Create a context for one anytime search
+	 * 
+	 * @param bound    the initial bound
+	 * @param metrics  the metrics filled by the search or null
+	 * @param limits   the limits and cancellation or null
+	 * @param listener called on every improvement of the incumbent or null
+	 * @param table    the transposition table or null
+	 * @param rule     the branching of the search
+	 * @param offset   the weight the bound shared by the control of the limits
+	 *                 exceeds the bound of this context by
+	 * @param root     the lower bound of the cleaned root graph, so the root node
+	 *                 does not compute it again, or -1 if it is unknown
+	 */
+	public SearchContext(float bound, SolverMetrics metrics, SearchLimits limits, SolveControl.Listener listener,
+			TranspositionTable table, FeedbackVertexSet.BranchingRule rule, float offset, float root) {
+		this.bound = new AtomicInteger(Float.floatToIntBits(bound));
+		this.metrics = metrics;
+		this.limits = limits;
+		this.listener = listener;
+		this.table = table;
+		this.rule = rule;
+		this.sharedOffset = offset;
+		this.rootLowerBound = root;
+	}
+
+	/**
+	 * Get the current bound
+	 * 
+	 * @return the bound
+	 */
+	public float getBound() {
+		return Float.intBitsToFloat(bound.get());
+	}
+
+	/**
+	 * Lower the bound to a value if it is smaller than the current bound (atomic
+	 * minimum)
+	 * 
+	 * @param value the new bound
+	 * @return true if the bound was lowered, false else
+	 */
+	public boolean updateBound(float value) {
+		while (true) {
+			int current = bound.get();
+			if (!(value < Float.intBitsToFloat(current)))
+				return false;
+			if (bound.compareAndSet(current, Float.floatToIntBits(value)))
+				return true;
+		}
+	}
+
+	/**
+	 * Check if a branch with a given weight can be cut, because it exceeds the
+	 * bound or can not improve the incumbent
+	 * 
+	 * @param value the weight of the branch (or a lower bound of it)
+	 * @return true if the branch can be cut, false else
+	 */
+	public boolean prunes(float value) {
+		return value > getBound() || value >= incumbentWeight;
+	}
+
+	/**
+	 * Offer a solution, it replaces the incumbent if it is lighter. The bound is
+	 * lowered to its weight.
+	 * 
+	 * @param solution the solution (copied if accepted)
+	 * @param weight   the weight of the solution
+	 * @return true if the solution became the incumbent, false else
+	 */
+	public synchronized boolean offer(FvsSolution solution, float weight) {
+		if (!(weight < incumbentWeight))
+			return false;
+		incumbent = solution.copy();
+		incumbentWeight = weight;
+		updateBound(weight);
+		if (listener != null)
+			listener.improved(incumbent);
+		return true;
+	}
+
+	/**
+	 * Check if the search has to stop at a node, because a limit is reached or it
+	 * was cancelled. A stopped node is remembered for the lower bound. The bound
+	 * is lowered to the bound shared by the control.
+	 * 
+	 * @param value the weight of the node
+	 * @return true if the node has to be left unexplored, false else
+	 */
+	public boolean stops(float value) {
+		if (limits == null)
+			return false;
+		updateBound(limits.getSharedBound() - sharedOffset);
+		if (!limits.reached())
+			return false;
+		while (true) {
+			int current = stopped.get();
+			if (!(value < Float.intBitsToFloat(current))
+					|| stopped.compareAndSet(current, Float.floatToIntBits(value)))
+				return true;
+		}
+	}
+
+	/**
+	 * Get the reason the search stopped
+	 * 
+	 * @return the reason or null if the search was not stopped
+	 */
+	public ExactResult.Status getStop() {
+		return limits == null ? null : limits.getStop();
+	}
+
+	/**
+	 * Get the weight of the lightest stopped node, no unexplored solution is
+	 * lighter
+	 * 
+	 * @return the weight or infinity if no node was stopped
+	 */
+	public float getStoppedWeight() {
+		return Float.intBitsToFloat(stopped.get());
+	}
+
+	/**
+	 * Get the best solution found so far
+	 * 
+	 * @return the solution or null if none was found
+	 */
+	public FvsSolution getIncumbent() {
+		return incumbent;
+	}
+
+	/**
+	 * Get the weight of the best solution found so far
+	 * 
+	 * @return the weight or infinity if none was found
+	 */
+	public float getIncumbentWeight() {
+		return incumbentWeight;
+	}
+
+}
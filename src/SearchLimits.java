@@ -0,0 +1,95 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The limits of an anytime search. All contexts of one solve share them, so
+ * the time and node limits hold for the solve as a whole.
+ */
+class SearchLimits {
+
+	private final SolveControl control;
+	private final long deadline;
+	private final long nodeLimit;
+	private final AtomicLong nodes = new AtomicLong();
+
+	// why the search stopped (null while running)
+	private volatile ExactResult.Status stop;
+
+	/**
+	 * Start the limits of a solve, the time limit runs from now
+	 * 
+	 * @param control the limits and cancellation
+	 */
+	public SearchLimits(SolveControl control) {
+		this.control = control;
+		long time = control.getTimeLimit();
+		this.deadline = time < 0 ? Long.MAX_VALUE : System.nanoTime() + time * 1000000L;
+		long nodes = control.getNodeLimit();
+		this.nodeLimit = nodes < 0 ? Long.MAX_VALUE : nodes;
+	}
+
+	/**
+	 * Count a node and check if a limit is reached or the solve was cancelled
+	 * 
+	 * @return true if the search has to stop, false else
+	 */
+	public boolean reached() {
+		if (stop == null) {
+			if (control.isCancelled())
+				stop = ExactResult.Status.CANCELLED;
+			else if (nodes.incrementAndGet() > nodeLimit)
+				stop = ExactResult.Status.NODE_LIMIT;
+			else if (System.nanoTime() > deadline)
+				stop = ExactResult.Status.TIME_LIMIT;
+			else
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Check if the time limit is reached or the solve was cancelled, without
+	 * counting a node (for the phases before the search)
+	 * 
+	 * @return true if the solve has to stop, false else
+	 */
+	public boolean expired() {
+		if (stop == null) {
+			if (control.isCancelled())
+				stop = ExactResult.Status.CANCELLED;
+			else if (System.nanoTime() > deadline)
+				stop = ExactResult.Status.TIME_LIMIT;
+			else
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Get the deadline of the time limit
+	 * 
+	 * @return the deadline in nanoseconds ({@link Long#MAX_VALUE} if there is no
+	 *         time limit)
+	 */
+	public long getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * Get the weight of the best solution found outside of the search
+	 * 
+	 * @return the weight or infinity if none was shared
+	 */
+	public float getSharedBound() {
+		return control.getSharedBound();
+	}
+
+	/**
+	 * Get the reason the search stopped
+	 * 
+	 * @return the reason or null if the search was not stopped
+	 */
+	public ExactResult.Status getStop() {
+		return stop;
+	}
+
+}
@@ -0,0 +1,189 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits, progress listener, cancellation, memory, branching and warm start of
+ * an anytime exact solve. The search stops when the time or node limit is reached or when
+ * it is cancelled (from any thread) and returns the best solution found so far
+ * with a proven lower bound, see {@link ExactResult}. Solutions found outside
+ * of the search (e.g. by a {@link Portfolio}) can lower its bound while it
+ * runs.
+ */
+public class SolveControl {
+
+	/**
+	 * A listener that is called on every improvement of the best solution. It is
+	 * called by the search threads (one at a time), so it should return quickly.
+	 */
+	public interface Listener {
+		/**
+		 * Called on an improvement
+		 * 
+		 * @param solution the new best solution (must not be changed)
+		 */
+		void improved(FvsSolution solution);
+	}
+
+	private long timeLimitMillis = -1;
+	private long nodeLimit = -1;
+	private Listener listener;
+	private int tableMegabytes = TranspositionTable.DEFAULT_MEGABYTES;
+	private FeedbackVertexSet.BranchingRule branching = FeedbackVertexSet.BranchingRule.DEFAULT;
+	private long localSearchMillis = LocalSearch.DEFAULT_MILLIS;
+	private volatile boolean cancelled;
+
+	// the control this one was derived from (cancelling it cancels this) or null
+	private SolveControl parent;
+
+	// the weight of the best solution found outside of the search (float bits)
+	private final AtomicInteger sharedBound = new AtomicInteger(Float.floatToIntBits(Float.POSITIVE_INFINITY));
+
+	/**
+	 * Limit the running time of the search
+	 * 
+	 * @param millis the time limit in milliseconds
+	 * @return this control
+	 */
+	public SolveControl timeLimit(long millis) {
+		this.timeLimitMillis = millis;
+		return this;
+	}
+
+	/**
+	 * Limit the number of search nodes
+	 * 
+	 * @param nodes the node limit
+	 * @return this control
+	 */
+	public SolveControl nodeLimit(long nodes) {
+		this.nodeLimit = nodes;
+		return this;
+	}
+
+	/**
+	 * Set the listener for improvements
+	 * 
+	 * @param listener the listener
+	 * @return this control
+	 */
+	public SolveControl listener(Listener listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	/**
+	 * Set the memory cap of the transposition table of the search
+	 * 
+	 * @param megabytes the cap in megabytes, 0 disables the table
+	 * @return this control
+	 */
+	public SolveControl tableSize(int megabytes) {
+		this.tableMegabytes = megabytes;
+		return this;
+	}
+
+	/**
+	 * Set the branching rule of the search
+	 * 
+	 * @param rule the rule
+	 * @return this control
+	 */
+	public SolveControl branching(FeedbackVertexSet.BranchingRule rule) {
+		this.branching = rule;
+		return this;
+	}
+
+	/**
+	 * Set the time cap of the local search improving the starting solution of
+	 * the search
+	 * 
+	 * @param millis the cap in milliseconds, a negative cap disables the local
+	 *               search
+	 * @return this control
+	 */
+	public SolveControl localSearch(long millis) {
+		this.localSearchMillis = millis;
+		return this;
+	}
+
+	/**
+	 * Share the weight of a solution found outside of the search, can be called
+	 * from any thread while it runs. The search then skips the solutions heavier
+	 * than it and ends INFEASIBLE if it finds no other.
+	 * 
+	 * @param weight the weight of the solution
+	 */
+	public void shareBound(float weight) {
+		while (true) {
+			int current = sharedBound.get();
+			if (!(weight < Float.intBitsToFloat(current)))
+				return;
+			if (sharedBound.compareAndSet(current, Float.floatToIntBits(weight)))
+				return;
+		}
+	}
+
+	/**
+	 * Cancel the search, it stops as soon as possible
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled || (parent != null && parent.isCancelled());
+	}
+
+	/**
+	 * Get the weight of the best solution found outside of the search
+	 * 
+	 * @return the weight or infinity if none was shared
+	 */
+	public float getSharedBound() {
+		return Float.intBitsToFloat(sharedBound.get());
+	}
+
+	public long getTimeLimit() {
+		return timeLimitMillis;
+	}
+
+	public long getNodeLimit() {
+		return nodeLimit;
+	}
+
+	public Listener getListener() {
+		return listener;
+	}
+
+	public int getTableSize() {
+		return tableMegabytes;
+	}
+
+	public FeedbackVertexSet.BranchingRule getBranching() {
+		return branching;
+	}
+
+	public long getLocalSearchTime() {
+		return localSearchMillis;
+	}
+
+	/**
+	 * Derive a control with the settings of this one and another listener. It is
+	 * cancelled with this control, a bound is shared with the derived control
+	 * only.
+	 * 
+	 * @param listener the listener of the derived control
+	 * @return the derived control
+	 */
+	SolveControl derive(Listener listener) {
+		SolveControl control = new SolveControl();
+		control.timeLimitMillis = timeLimitMillis;
+		control.nodeLimit = nodeLimit;
+		control.listener = listener;
+		control.tableMegabytes = tableMegabytes;
+		control.branching = branching;
+		control.localSearchMillis = localSearchMillis;
+		control.parent = this;
+		return control;
+	}
+
+}
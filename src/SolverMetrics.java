@@ -0,0 +1,204 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timings of one exact solve. A solve is only instrumented if a
+ * metrics object is passed, otherwise every instrumentation point is a single
+ * null check. The counters can be updated by all threads of a parallel search.
+ */
+public class SolverMetrics {
+
+	/**
+	 * The reasons a node of the search is cut
+	 */
+	public enum Prune {
+		// the weight exceeds the bound or can not improve the incumbent
+		BOUND,
+		// the weight plus a lower bound of the rest does
+		LOWER_BOUND,
+		// the weight plus a cached bound of the rest does
+		TRANSPOSITION
+	}
+
+	/**
+	 * The kinds of branchings
+	 */
+	public enum Branch {
+		// on the lightest and the hub vertex of a semidisjoint cycle
+		SEMIDISJOINT,
+		// on all vertices of a shortest cycle
+		SHORTEST_CYCLE,
+		// delete or keep a vertex (iterative compression)
+		COMPRESSION,
+		// a vertex that has to be deleted (iterative compression)
+		FORCED
+	}
+
+	/**
+	 * The phases that are timed
+	 */
+	public enum Phase {
+		// kernelization of the input graph
+		KERNEL,
+		// starting solution of the iterative compression
+		APPROXIMATION,
+		// local search of the starting solutions
+		LOCAL_SEARCH,
+		// the whole search
+		SEARCH,
+		// removal of vertices with a degree of 1 or less
+		CLEAN_UP,
+		// acyclicity checks
+		ACYCLIC,
+		// lower bounds
+		LOWER_BOUND,
+		// search of the cycle to branch on
+		CANDIDATES,
+		// graph copies of the workers
+		COPY
+	}
+
+	private final long start = System.nanoTime();
+
+	private final LongAdder nodes = new LongAdder();
+	private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+	private final LongAdder[] prunes = adders(Prune.values().length);
+	private final LongAdder[] branches = adders(Branch.values().length);
+	private final LongAdder[] phases = adders(Phase.values().length);
+
+	// incumbent improvements (nanoseconds since creation, weight)
+	private final List<Long> incumbentTimes = new ArrayList<>();
+	private final List<Float> incumbentWeights = new ArrayList<>();
+
+	private static LongAdder[] adders(int count) {
+		LongAdder[] adders = new LongAdder[count];
+		for (int i = 0; i < count; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+
+	/**
+	 * Count an expanded node
+	 * 
+	 * @param depth the depth of the node
+	 */
+	public void node(int depth) {
+		nodes.increment();
+		maxDepth.accumulate(depth);
+	}
+
+	public void prune(Prune reason) {
+		prunes[reason.ordinal()].increment();
+	}
+
+	public void branch(Branch kind) {
+		branches[kind.ordinal()].increment();
+	}
+
+	/**
+	 * Record an improvement of the incumbent
+	 * 
+	 * @param weight the weight of the new incumbent (of the input graph)
+	 */
+	public synchronized void incumbent(float weight) {
+		incumbentTimes.add(System.nanoTime() - start);
+		incumbentWeights.add(weight);
+	}
+
+	/**
+	 * Start timing a phase
+	 * 
+	 * @param metrics the metrics or null
+	 * @return the start time or 0 if metrics is null
+	 */
+	public static long start(SolverMetrics metrics) {
+		return metrics == null ? 0 : System.nanoTime();
+	}
+
+	/**
+	 * Stop timing a phase
+	 * 
+	 * @param metrics the metrics or null
+	 * @param phase   the phase
+	 * @param start   the start time
+	 */
+	public static void stop(SolverMetrics metrics, Phase phase, long start) {
+		if (metrics != null)
+			metrics.phases[phase.ordinal()].add(System.nanoTime() - start);
+	}
+
+	public long getNodes() {
+		return nodes.sum();
+	}
+
+	public long getMaxDepth() {
+		return maxDepth.get();
+	}
+
+	public long getPrunes(Prune reason) {
+		return prunes[reason.ordinal()].sum();
+	}
+
+	public long getBranches(Branch kind) {
+		return branches[kind.ordinal()].sum();
+	}
+
+	public long getNanos(Phase phase) {
+		return phases[phase.ordinal()].sum();
+	}
+
+	/**
+	 * Export the metrics as a JSON object (times in milliseconds)
+	 * 
+	 * @return the JSON object
+	 */
+	public synchronized String toJson() {
+		StringBuilder json = new StringBuilder();
+		json.append("{\"nodes\":").append(getNodes()).append(",\"max_depth\":").append(getMaxDepth());
+
+		json.append(",\"prunes\":{");
+		for (Prune reason : Prune.values()) {
+			if (reason.ordinal() > 0)
+				json.append(',');
+			json.append('"').append(reason.name().toLowerCase(Locale.ROOT)).append("\":").append(getPrunes(reason));
+		}
+
+		json.append("},\"branches\":{");
+		for (Branch kind : Branch.values()) {
+			if (kind.ordinal() > 0)
+				json.append(',');
+			json.append('"').append(kind.name().toLowerCase(Locale.ROOT)).append("\":").append(getBranches(kind));
+		}
+
+		json.append("},\"phases_ms\":{");
+		for (Phase phase : Phase.values()) {
+			if (phase.ordinal() > 0)
+				json.append(',');
+			json.append('"').append(phase.name().toLowerCase(Locale.ROOT)).append("\":").append(millis(getNanos(phase)));
+		}
+
+		json.append("},\"incumbents\":[");
+		for (int i = 0; i < incumbentWeights.size(); i++) {
+			if (i > 0)
+				json.append(',');
+			json.append("{\"ms\":").append(millis(incumbentTimes.get(i))).append(",\"weight\":")
+					.append(incumbentWeights.get(i)).append('}');
+		}
+		json.append("]}");
+		return json.toString();
+	}
+
+	private static String millis(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+	}
+
+	@Override
+	public String toString() {
+		return toJson();
+	}
+
+}
@@ -0,0 +1,83 @@
+/**
+ * A bounded cache of solved subgraphs of the exact search, keyed by the
+ * Zobrist hash of the enabled vertices (see {@link Graph#useZobristHash()}).
+ * An entry holds a lower bound of the weight needed to make the subgraph
+ * acyclic, it cuts a node reaching the subgraph again whose weight plus the
+ * entry can not improve the incumbent.
+ * 
+ * The table is shared by all threads without locks: an entry is two longs, the
+ * data and the hash xor the data, so an entry torn by concurrent writes does
+ * not match its hash and is ignored. Every bucket has two entries, one kept
+ * for the largest subgraph (depth-preferred) and one always replaced.
+ */
+class TranspositionTable {
+
+	// the size used if none is configured
+	public static final int DEFAULT_MEGABYTES = 16;
+
+	// bytes per bucket (two entries of two longs)
+	private static final int BUCKET_BYTES = 32;
+
+	// buckets per vertex of the searched graphs (up to the cap)
+	private static final int BUCKETS_PER_VERTEX = 256;
+
+	private final long[] entries;
+	private final int mask;
+
+	/**
+	 * Create a table sized for the searched graphs
+	 * 
+	 * @param megabytes the memory cap of the table
+	 * @param vertices  the number of vertices of the searched graphs
+	 */
+	public TranspositionTable(int megabytes, int vertices) {
+		long buckets = Math.min((long) megabytes * 1024 * 1024 / BUCKET_BYTES, (long) vertices * BUCKETS_PER_VERTEX);
+		int count = (int) Math.min(Long.highestOneBit(Math.max(1L, buckets)), 1 << 26);
+		this.entries = new long[4 * count];
+		this.mask = count - 1;
+	}
+
+	/**
+	 * Look up a subgraph
+	 * 
+	 * @param hash the hash of the subgraph
+	 * @return the lower bound of its FVS weight or 0 if it is unknown
+	 */
+	public float probe(long hash) {
+		int slot = 4 * (int) (hash & mask);
+		for (int i = slot; i < slot + 4; i += 2) {
+			long data = entries[i + 1];
+			if ((entries[i] ^ data) == hash && data != 0)
+				return Float.intBitsToFloat((int) (data >>> 32));
+		}
+		return 0.0f;
+	}
+
+	/**
+	 * Store a lower bound of a subgraph
+	 * 
+	 * @param hash  the hash of the subgraph
+	 * @param value the lower bound of its FVS weight
+	 * @param size  the number of vertices of the subgraph
+	 */
+	public void store(long hash, float value, int size) {
+		if (!(value > 0.0f))
+			return;
+		long data = ((long) Float.floatToIntBits(value) << 32) | size;
+		int slot = 4 * (int) (hash & mask);
+
+		// the first entry is replaced by the same or a larger subgraph
+		long first = entries[slot + 1];
+		boolean same = (entries[slot] ^ first) == hash;
+		if (same || (int) first <= size) {
+			if (same && Float.intBitsToFloat((int) (first >>> 32)) > value)
+				return;
+			entries[slot] = hash ^ data;
+			entries[slot + 1] = data;
+		} else {
+			entries[slot + 2] = hash ^ data;
+			entries[slot + 3] = data;
+		}
+	}
+
+}